@@ -0,0 +1,57 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.dominio.OrcamentoItem;
+import com.ampliart.dominio.Produto;
+import com.ampliart.dominio.StatusOrcamento;
+import com.ampliart.dominio.TipoAjuste;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class DadosBenchmark {
+
+	private DadosBenchmark() {
+	}
+
+	static Orcamento orcamento(int linhas) {
+		Random aleatorio = new Random(linhas);
+		Orcamento orcamento = new Orcamento();
+		orcamento.setId(1L);
+		orcamento.setClienteNome("Cliente benchmark");
+		orcamento.setClienteTelefone("(11) 99999-0000");
+		orcamento.setStatus(StatusOrcamento.venda_concluida);
+		orcamento.setPercentualAjuste(new BigDecimal("7.50"));
+		orcamento.setTipoAjuste(TipoAjuste.desconto);
+		orcamento.setDataConclusao(LocalDateTime.now());
+		List<OrcamentoItem> itens = new ArrayList<>(linhas);
+		for (int i = 0; i < linhas; i++) {
+			Produto produto = produto(i, aleatorio);
+			OrcamentoItem item = new OrcamentoItem();
+			item.setOrcamento(orcamento);
+			item.setProduto(produto);
+			item.setQuantidade(1 + aleatorio.nextInt(20));
+			item.setPrecoUnitario(produto.getPrecoVenda());
+			item.setCustoUnitario(produto.getPrecoCompra());
+			item.setSubtotal(produto.getPrecoVenda().multiply(new BigDecimal(item.getQuantidade()))
+					.setScale(2, RoundingMode.HALF_UP));
+			itens.add(item);
+		}
+		orcamento.setItens(itens);
+		return orcamento;
+	}
+
+	static Produto produto(int indice, Random aleatorio) {
+		Produto produto = new Produto();
+		produto.setId((long) indice + 1);
+		produto.setCodigo(String.format("789%010d", indice));
+		produto.setNome("Papel fotografico A4 brilhante " + indice);
+		produto.setPrecoCompra(BigDecimal.valueOf(100 + aleatorio.nextInt(10_000), 2));
+		produto.setPrecoVenda(BigDecimal.valueOf(200 + aleatorio.nextInt(20_000), 2));
+		return produto;
+	}
+}
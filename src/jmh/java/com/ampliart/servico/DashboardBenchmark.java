@@ -0,0 +1,101 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.AgrupamentoPeriodo;
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.repo.TotaisAgrupados;
+import com.ampliart.repo.VendaDiariaRepositorio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reducoes em {@code BigDecimal} do caminho de indicadores: o acumulo de custo de uma venda em
+ * {@link VendaDiariaServico#registrarVenda} e a montagem da serie diaria de um ano, com os dias
+ * sem venda preenchidos, a partir das linhas agregadas de {@code venda_diaria}. O repositorio e
+ * substituido por um stub em memoria para medir apenas o trabalho feito na JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardBenchmark {
+
+	@Param({"10", "100", "1000"})
+	private int linhas;
+
+	private Orcamento venda;
+	private VendaDiariaServico vendaDiariaServico;
+	private VendaDiariaRepositorio repositorio;
+	private LocalDate inicioAno;
+
+	@Setup
+	public void preparar() {
+		venda = DadosBenchmark.orcamento(linhas);
+		venda.setTotalFinal(new BigDecimal("1000.00"));
+		inicioAno = LocalDate.now().withDayOfYear(1).minusYears(1);
+		List<TotaisAgrupados> dias = new ArrayList<>();
+		Random aleatorio = new Random(42);
+		for (LocalDate dia = inicioAno; dia.isBefore(inicioAno.plusYears(1)); dia = dia.plusDays(1)) {
+			if (aleatorio.nextInt(7) != 0) {
+				dias.add(totais(dia, BigDecimal.valueOf(aleatorio.nextInt(500_000), 2),
+						BigDecimal.valueOf(aleatorio.nextInt(300_000), 2)));
+			}
+		}
+		repositorio = (VendaDiariaRepositorio) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[]{VendaDiariaRepositorio.class},
+				(proxy, metodo, argumentos) -> switch (metodo.getName()) {
+					case "somarAgrupado" -> dias;
+					case "acumularVenda" -> 1;
+					default -> throw new UnsupportedOperationException(metodo.getName());
+				});
+		vendaDiariaServico = new VendaDiariaServico(repositorio, new IndicadoresCache());
+	}
+
+	@Benchmark
+	public void registrarVenda() {
+		vendaDiariaServico.registrarVenda(venda);
+	}
+
+	@Benchmark
+	public Object serieDiariaDoAno() {
+		DashboardServico dashboardServico = new DashboardServico(repositorio, new IndicadoresCache());
+		return dashboardServico.carregarSerie(inicioAno, inicioAno.plusYears(1), AgrupamentoPeriodo.dia);
+	}
+
+	private static TotaisAgrupados totais(LocalDate inicio, BigDecimal receita, BigDecimal gasto) {
+		return new TotaisAgrupados() {
+			@Override
+			public LocalDate getInicio() {
+				return inicio;
+			}
+
+			@Override
+			public BigDecimal getReceita() {
+				return receita;
+			}
+
+			@Override
+			public BigDecimal getGasto() {
+				return gasto;
+			}
+		};
+	}
+}
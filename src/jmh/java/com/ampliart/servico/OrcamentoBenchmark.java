@@ -0,0 +1,80 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.dominio.OrcamentoItem;
+import com.ampliart.dominio.TipoAjuste;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recalculo de totais e renderizacao de PDF de um orcamento com {@code linhas} itens.
+ * {@code recalcularTotaisBigDecimal} mantem o calculo anterior a {@code Dinheiro} como referencia;
+ * a coluna {@code gc.alloc.rate.norm} do profiler mostra os bytes alocados por operacao.
+ * <p>
+ * Executar com {@code mvn -Pjmh test-compile exec:exec -Djmh.incluir=OrcamentoBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrcamentoBenchmark {
+
+	@Param({"10", "100", "1000"})
+	private int linhas;
+
+	private Orcamento orcamento;
+	private OrcamentoServico orcamentoServico;
+	private OrcamentoPdfServico orcamentoPdfServico;
+
+	@Setup
+	public void preparar() {
+		orcamento = DadosBenchmark.orcamento(linhas);
+		orcamentoServico = new OrcamentoServico(null, null, null, null, null, null, null);
+		orcamentoPdfServico = new OrcamentoPdfServico(null, null);
+	}
+
+	@Benchmark
+	public BigDecimal recalcularTotais() {
+		orcamentoServico.recalcularTotais(orcamento);
+		return orcamento.getTotalFinal();
+	}
+
+	@Benchmark
+	public BigDecimal recalcularTotaisBigDecimal() {
+		BigDecimal totalBruto = orcamento.getItens().stream()
+				.map(OrcamentoItem::getSubtotal)
+				.reduce(BigDecimal.ZERO, BigDecimal::add)
+				.setScale(2, RoundingMode.HALF_UP);
+		orcamento.setTotalBruto(totalBruto);
+		BigDecimal valorAjuste = totalBruto
+				.multiply(orcamento.getPercentualAjuste())
+				.divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+		if (orcamento.getTipoAjuste() == TipoAjuste.desconto) {
+			valorAjuste = valorAjuste.negate();
+		}
+		orcamento.setValorAjuste(valorAjuste);
+		orcamento.setTotalFinal(totalBruto.add(valorAjuste).setScale(2, RoundingMode.HALF_UP));
+		return orcamento.getTotalFinal();
+	}
+
+	@Benchmark
+	public void renderizarPdf() {
+		orcamentoPdfServico.renderizar(orcamento, OutputStream.nullOutputStream());
+	}
+}
@@ -0,0 +1,75 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.Produto;
+import com.ampliart.repo.ProdutoEspecificacoes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminhos de busca de produto que rodam na JVM: a leitura de codigo de barras pelo
+ * {@link ProdutoCodigoCache} (acerto e falha com carga) e a normalizacao do termo digitado
+ * antes da busca por nome.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProdutoBuscaBenchmark {
+
+	private static final int PRODUTOS = 20_000;
+
+	private final Map<String, Produto> catalogo = new HashMap<>();
+	private ProdutoCodigoCache cache;
+	private String[] codigos;
+	private int proximo;
+
+	@Setup
+	public void preparar() {
+		Random aleatorio = new Random(7);
+		codigos = new String[PRODUTOS];
+		for (int i = 0; i < PRODUTOS; i++) {
+			Produto produto = DadosBenchmark.produto(i, aleatorio);
+			catalogo.put(produto.getCodigo(), produto);
+			codigos[i] = produto.getCodigo();
+		}
+		cache = new ProdutoCodigoCache();
+		for (String codigo : codigos) {
+			cache.obter(codigo, this::carregar);
+		}
+	}
+
+	@Benchmark
+	public ProdutoCodigoCache.Entrada codigoEmCache() {
+		return cache.obter(codigos[proximo++ % PRODUTOS], this::carregar);
+	}
+
+	@Benchmark
+	public ProdutoCodigoCache.Entrada codigoForaDoCache() {
+		cache.invalidarTudo();
+		return cache.obter(codigos[proximo++ % PRODUTOS], this::carregar);
+	}
+
+	@Benchmark
+	public String normalizarTermo() {
+		return ProdutoEspecificacoes.escaparLike(ProdutoEspecificacoes.removerAcentos("Papel Fotográfico 100% A4"));
+	}
+
+	private ProdutoCodigoCache.Entrada carregar(String codigo) {
+		return ProdutoCodigoCache.Entrada.de(catalogo.get(codigo));
+	}
+}
@@ -0,0 +1,26 @@
+package com.ampliart.controlador;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ConfiguracaoWeb implements WebMvcConfigurer {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ConfiguracaoWeb(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registro) {
+        registro.addInterceptor(new ContadorComandosInterceptor());
+        OpenEntityManagerInViewInterceptor entityManagerNaVisao = new OpenEntityManagerInViewInterceptor();
+        entityManagerNaVisao.setEntityManagerFactory(entityManagerFactory);
+        registro.addWebRequestInterceptor(entityManagerNaVisao)
+                .excludePathPatterns("/orcamentos/*/pdf", "/orcamentos/exportar");
+    }
+}
@@ -0,0 +1,39 @@
+package com.ampliart.controlador;
+
+import com.ampliart.repo.ContadorComandos;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class ContadorComandosInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadorComandosInterceptor.class);
+    private static final String ATRIBUTO_INICIADO = ContadorComandosInterceptor.class.getName() + ".iniciado";
+
+    @Override
+    public boolean preHandle(HttpServletRequest requisicao, HttpServletResponse resposta, Object handler) {
+        if (!ContadorComandos.ativo()) {
+            ContadorComandos.iniciar();
+            requisicao.setAttribute(ATRIBUTO_INICIADO, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest requisicao, HttpServletResponse resposta, Object handler, Exception ex) {
+        boolean iniciado = requisicao.getAttribute(ATRIBUTO_INICIADO) != null;
+        int comandos = iniciado ? ContadorComandos.encerrar() : ContadorComandos.contagem();
+        Object padrao = requisicao.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = requisicao.getMethod() + " " + (padrao != null ? padrao : requisicao.getRequestURI());
+        LimiteComandos limite = handler instanceof HandlerMethod metodo ? metodo.getMethodAnnotation(LimiteComandos.class) : null;
+        if (limite != null && comandos > limite.value()) {
+            log.warn("{} executou {} comandos SQL, acima do limite de {}", endpoint, comandos, limite.value());
+        } else {
+            log.debug("{} executou {} comandos SQL", endpoint, comandos);
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.ampliart.controlador;
 
+import com.ampliart.dominio.AgrupamentoPeriodo;
 import com.ampliart.servico.DashboardServico;
+import com.ampliart.servico.FilaRenderizacaoPdf;
+import com.ampliart.servico.IndicadoresCache;
+import com.ampliart.servico.VendaDiariaServico;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -14,17 +22,27 @@ import java.util.stream.Collectors;
 public class DashboardControlador {
 
     private final DashboardServico dashboardServico;
+    private final VendaDiariaServico vendaDiariaServico;
+    private final IndicadoresCache indicadoresCache;
+    private final FilaRenderizacaoPdf filaRenderizacaoPdf;
 
-    public DashboardControlador(DashboardServico dashboardServico) {
+    public DashboardControlador(DashboardServico dashboardServico,
+                                VendaDiariaServico vendaDiariaServico,
+                                IndicadoresCache indicadoresCache,
+                                FilaRenderizacaoPdf filaRenderizacaoPdf) {
         this.dashboardServico = dashboardServico;
+        this.vendaDiariaServico = vendaDiariaServico;
+        this.indicadoresCache = indicadoresCache;
+        this.filaRenderizacaoPdf = filaRenderizacaoPdf;
     }
 
     @GetMapping
     public String dashboard(Model model) {
-        model.addAttribute("indicadorHoje", dashboardServico.carregarHoje());
-        model.addAttribute("indicadorSemana", dashboardServico.carregarSemana());
-        model.addAttribute("indicadorMes", dashboardServico.carregarMes());
-        model.addAttribute("indicadorAno", dashboardServico.carregarAno());
+        DashboardServico.Painel painel = dashboardServico.carregarPainel();
+        model.addAttribute("indicadorHoje", painel.getHoje());
+        model.addAttribute("indicadorSemana", painel.getSemana());
+        model.addAttribute("indicadorMes", painel.getMes());
+        model.addAttribute("indicadorAno", painel.getAno());
         List<DashboardServico.IndicadorPeriodo> ultimosDias = dashboardServico.carregarUltimosDias(7);
         model.addAttribute("ultimosDias", ultimosDias);
         model.addAttribute("labelsGrafico", ultimosDias.stream()
@@ -38,4 +56,37 @@ public class DashboardControlador {
                 .collect(Collectors.toList()));
         return "dashboard/index";
     }
+
+    @GetMapping("/serie")
+    public ResponseEntity<List<DashboardServico.IndicadorPeriodo>> serie(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(defaultValue = "dia") AgrupamentoPeriodo agrupamento) {
+        try {
+            return ResponseEntity.ok(dashboardServico.carregarSerie(dataInicio, dataFim.plusDays(1), agrupamento));
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<IndicadoresCache.Estatisticas> cache() {
+        return ResponseEntity.ok(indicadoresCache.estatisticas());
+    }
+
+    @GetMapping("/pdf")
+    public ResponseEntity<FilaRenderizacaoPdf.Estatisticas> pdf() {
+        return ResponseEntity.ok(filaRenderizacaoPdf.estatisticas());
+    }
+
+    @PostMapping("/reconstruir")
+    public String reconstruir(RedirectAttributes redirectAttributes) {
+        try {
+            int dias = vendaDiariaServico.reconstruir();
+            redirectAttributes.addFlashAttribute("mensagemSucesso", "Resumo diario reconstruido: " + dias + " dias");
+        } catch (Exception ex) {
+            redirectAttributes.addFlashAttribute("mensagemErro", ex.getMessage());
+        }
+        return "redirect:/dashboard";
+    }
 }
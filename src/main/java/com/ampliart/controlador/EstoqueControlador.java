@@ -1,18 +1,32 @@
 package com.ampliart.controlador;
 
-import com.ampliart.dominio.MovimentacaoEstoque;
 import com.ampliart.dominio.TipoMovimentacaoEstoque;
+import com.ampliart.repo.MovimentacaoLinha;
+import com.ampliart.servico.EstoqueInsuficienteException;
 import com.ampliart.servico.EstoqueServico;
+import com.ampliart.servico.Janela;
 import com.ampliart.servico.ProdutoServico;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/estoque")
@@ -27,11 +41,27 @@ public class EstoqueControlador {
     }
 
     @GetMapping("/movimentacoes")
-    public String movimentacoes(Model model) {
-        List<MovimentacaoEstoque> movimentacoes = estoqueServico.listarMovimentacoes();
+    @LimiteComandos(4)
+    public String movimentacoes(@RequestParam(required = false) Long produtoId,
+                                @RequestParam(required = false) TipoMovimentacaoEstoque tipo,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime depoisData,
+                                @RequestParam(required = false) Long depoisId,
+                                @RequestParam(defaultValue = "50") int tamanho,
+                                Model model) {
+        Janela<MovimentacaoLinha> movimentacoes = estoqueServico.listarMovimentacoes(produtoId, tipo,
+                dataInicio, dataFim, depoisData, depoisId, tamanho);
         model.addAttribute("movimentacoes", movimentacoes);
-        model.addAttribute("produtos", produtoServico.listar(null, null, null));
+        if (produtoId != null) {
+            model.addAttribute("produtoSelecionado", produtoServico.buscarPorId(produtoId));
+        }
         model.addAttribute("tipos", TipoMovimentacaoEstoque.values());
+        model.addAttribute("produtoIdSelecionado", produtoId);
+        model.addAttribute("tipoSelecionado", tipo);
+        model.addAttribute("dataInicio", dataInicio);
+        model.addAttribute("dataFim", dataFim);
+        model.addAttribute("tamanho", tamanho);
         return "estoque/movimentacoes";
     }
 
@@ -49,4 +79,39 @@ public class EstoqueControlador {
         }
         return "redirect:/estoque/movimentacoes";
     }
+
+    @PostMapping("/movimentacoes/lote")
+    public String registrarLote(@RequestParam("arquivo") MultipartFile arquivo,
+                                @RequestParam(defaultValue = "movimentacoes") String modo,
+                                @RequestParam(required = false) String motivo,
+                                RedirectAttributes redirectAttributes) {
+        if (arquivo.isEmpty()) {
+            redirectAttributes.addFlashAttribute("mensagemErro", "Selecione um arquivo CSV");
+            return "redirect:/estoque/movimentacoes";
+        }
+        try (Reader leitor = new InputStreamReader(arquivo.getInputStream(), StandardCharsets.UTF_8)) {
+            if ("contagem".equals(modo)) {
+                int ajustes = estoqueServico.registrarContagem(estoqueServico.lerContagemCsv(leitor), motivo);
+                redirectAttributes.addFlashAttribute("mensagemSucesso", "Contagem aplicada: " + ajustes + " produto(s) ajustado(s)");
+            } else {
+                int linhas = estoqueServico.registrarLote(estoqueServico.lerMovimentacoesCsv(leitor));
+                redirectAttributes.addFlashAttribute("mensagemSucesso", linhas + " movimentacao(oes) registrada(s)");
+            }
+        } catch (Exception ex) {
+            redirectAttributes.addFlashAttribute("mensagemErro", ex.getMessage());
+        }
+        return "redirect:/estoque/movimentacoes";
+    }
+
+    @PostMapping(value = "/movimentacoes/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> registrarLoteJson(@RequestBody List<EstoqueServico.LinhaMovimentacao> linhas) {
+        try {
+            return ResponseEntity.ok(Map.of("registradas", estoqueServico.registrarLote(linhas)));
+        } catch (EstoqueInsuficienteException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("erro", ex.getMessage(), "produtoId", ex.getProdutoId()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("erro", ex.getMessage()));
+        }
+    }
 }
@@ -1,73 +1,91 @@
 package com.ampliart.controlador;
 
 import com.ampliart.dominio.*;
-import com.ampliart.repo.OrcamentoRepositorio;
 import com.ampliart.servico.CategoriaServico;
+import com.ampliart.servico.ExportacaoOrcamentoServico;
+import com.ampliart.servico.FilaSaturadaException;
+import com.ampliart.servico.Janela;
+import com.ampliart.servico.OrcamentoPdfServico;
 import com.ampliart.servico.OrcamentoServico;
-import com.ampliart.servico.ProdutoServico;
+import com.ampliart.servico.RepeticaoConflito;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.format.annotation.DateTimeFormat;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.util.List;
 
 @Controller
 @RequestMapping("/orcamentos")
 public class OrcamentoControlador {
 
-    private final OrcamentoRepositorio orcamentoRepositorio;
     private final OrcamentoServico orcamentoServico;
-    private final ProdutoServico produtoServico;
     private final CategoriaServico categoriaServico;
-
-    public OrcamentoControlador(OrcamentoRepositorio orcamentoRepositorio,
-                                OrcamentoServico orcamentoServico,
-                                ProdutoServico produtoServico,
-                                CategoriaServico categoriaServico) {
-        this.orcamentoRepositorio = orcamentoRepositorio;
+    private final OrcamentoPdfServico orcamentoPdfServico;
+    private final ExportacaoOrcamentoServico exportacaoOrcamentoServico;
+    private final RepeticaoConflito repeticaoConflito;
+
+    public OrcamentoControlador(OrcamentoServico orcamentoServico,
+                                CategoriaServico categoriaServico,
+                                OrcamentoPdfServico orcamentoPdfServico,
+                                ExportacaoOrcamentoServico exportacaoOrcamentoServico,
+                                RepeticaoConflito repeticaoConflito) {
         this.orcamentoServico = orcamentoServico;
-        this.produtoServico = produtoServico;
         this.categoriaServico = categoriaServico;
+        this.orcamentoPdfServico = orcamentoPdfServico;
+        this.exportacaoOrcamentoServico = exportacaoOrcamentoServico;
+        this.repeticaoConflito = repeticaoConflito;
     }
 
     @GetMapping
     public String listar(@RequestParam(required = false) StatusOrcamento status,
                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+                         @RequestParam(defaultValue = "dataCadastro") String ordenarPor,
+                         @RequestParam(defaultValue = "DESC") Sort.Direction direcao,
+                         @RequestParam(required = false) Long depoisId,
+                         @RequestParam(defaultValue = "50") int tamanho,
                          Model model) {
-        List<Orcamento> orcamentos;
-        if (dataInicio != null && dataFim != null) {
-            LocalDateTime inicio = dataInicio.atStartOfDay();
-            LocalDateTime fim = dataFim.plusDays(1).atStartOfDay();
-            if (status != null) {
-                orcamentos = orcamentoRepositorio.buscarPorStatusEDataCadastro(status, inicio, fim);
-            } else {
-                orcamentos = orcamentoRepositorio.buscarPorDataCadastro(inicio, fim);
-            }
-        } else if (status != null) {
-            orcamentos = orcamentoRepositorio.findByStatus(status);
-        } else {
-            orcamentos = orcamentoRepositorio.findAll();
-        }
+        Janela<Orcamento> orcamentos = orcamentoServico.listar(status, dataInicio, dataFim,
+                ordenarPor, direcao, depoisId, tamanho);
         model.addAttribute("orcamentos", orcamentos);
         model.addAttribute("statusSelecionado", status);
         model.addAttribute("statusPossiveis", StatusOrcamento.values());
         model.addAttribute("dataInicio", dataInicio);
         model.addAttribute("dataFim", dataFim);
+        model.addAttribute("ordenarPor", ordenarPor);
+        model.addAttribute("direcao", direcao);
+        model.addAttribute("tamanho", tamanho);
         return "orcamentos/lista";
     }
 
+    @GetMapping("/exportar")
+    public void exportarPdfs(@RequestParam(required = false) StatusOrcamento status,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+                             HttpServletResponse resposta) throws IOException {
+        resposta.setContentType("application/zip");
+        resposta.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orcamentos.zip");
+        try {
+            exportacaoOrcamentoServico.exportarZip(status, dataInicio, dataFim, resposta.getOutputStream());
+        } catch (FilaSaturadaException ex) {
+            resposta.reset();
+            resposta.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getTentarNovamenteEmSegundos()));
+            resposta.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage());
+        }
+    }
+
     @GetMapping("/novo")
     public String novo(Model model) {
         model.addAttribute("orcamento", new Orcamento());
@@ -87,18 +105,13 @@ public class OrcamentoControlador {
     }
 
     @GetMapping("/{id}")
-    public String detalhes(@PathVariable Long id,
-                           @RequestParam(required = false) String nomeProduto,
-                           @RequestParam(required = false) Long categoriaId,
-                           Model model) {
-        Orcamento orcamento = orcamentoServico.buscarPorId(id);
+    @LimiteComandos(3)
+    public String detalhes(@PathVariable Long id, Model model) {
+        Orcamento orcamento = orcamentoServico.buscarDetalhe(id);
         model.addAttribute("orcamento", orcamento);
         model.addAttribute("statusPossiveis", StatusOrcamento.values());
         model.addAttribute("tiposAjuste", TipoAjuste.values());
         model.addAttribute("categorias", categoriaServico.listar());
-        model.addAttribute("nomeProduto", nomeProduto);
-        model.addAttribute("categoriaId", categoriaId);
-        model.addAttribute("produtosDisponiveis", produtoServico.listarPorNomeECategoria(nomeProduto, categoriaId));
         return "orcamentos/detalhe";
     }
 
@@ -106,29 +119,30 @@ public class OrcamentoControlador {
     public String adicionarItem(@PathVariable Long id,
                                 @RequestParam String codigoProduto,
                                 @RequestParam(required = false) Integer quantidade,
+                                @RequestHeader(name = "HX-Request", defaultValue = "false") boolean parcial,
+                                Model model,
                                 RedirectAttributes redirectAttributes) {
         try {
-            orcamentoServico.adicionarItemPorCodigo(id, codigoProduto, quantidade);
-            redirectAttributes.addFlashAttribute("mensagemSucesso", "Item adicionado");
+            repeticaoConflito.executar(() -> orcamentoServico.adicionarItemPorCodigo(id, codigoProduto, quantidade));
+            return responder(id, parcial, "mensagemSucesso", "Item adicionado", model, redirectAttributes);
         } catch (Exception ex) {
-            redirectAttributes.addFlashAttribute("mensagemErro", ex.getMessage());
+            return responder(id, parcial, "mensagemErro", ex.getMessage(), model, redirectAttributes);
         }
-        return "redirect:/orcamentos/" + id;
     }
 
     @PostMapping("/{id}/itens/adicionar-por-id")
     public String adicionarItemPorId(@PathVariable Long id,
                                      @RequestParam Long produtoId,
                                      @RequestParam(required = false) Integer quantidade,
+                                     @RequestHeader(name = "HX-Request", defaultValue = "false") boolean parcial,
+                                     Model model,
                                      RedirectAttributes redirectAttributes) {
         try {
-            Produto produto = produtoServico.buscarPorId(produtoId);
-            orcamentoServico.adicionarItemPorCodigo(id, produto.getCodigo(), quantidade);
-            redirectAttributes.addFlashAttribute("mensagemSucesso", "Item adicionado");
+            repeticaoConflito.executar(() -> orcamentoServico.adicionarItemPorProdutoId(id, produtoId, quantidade));
+            return responder(id, parcial, "mensagemSucesso", "Item adicionado", model, redirectAttributes);
         } catch (Exception ex) {
-            redirectAttributes.addFlashAttribute("mensagemErro", ex.getMessage());
+            return responder(id, parcial, "mensagemErro", ex.getMessage(), model, redirectAttributes);
         }
-        return "redirect:/orcamentos/" + id;
     }
 
     @PostMapping("/{id}/itens/{itemId}/atualizar")
@@ -136,41 +150,44 @@ public class OrcamentoControlador {
                                 @PathVariable Long itemId,
                                 @RequestParam Integer quantidade,
                                 @RequestParam BigDecimal precoUnitario,
+                                @RequestHeader(name = "HX-Request", defaultValue = "false") boolean parcial,
+                                Model model,
                                 RedirectAttributes redirectAttributes) {
         try {
-            orcamentoServico.atualizarItem(id, itemId, quantidade, precoUnitario);
-            redirectAttributes.addFlashAttribute("mensagemSucesso", "Item atualizado");
+            repeticaoConflito.executar(() -> orcamentoServico.atualizarItem(id, itemId, quantidade, precoUnitario));
+            return responder(id, parcial, "mensagemSucesso", "Item atualizado", model, redirectAttributes);
         } catch (Exception ex) {
-            redirectAttributes.addFlashAttribute("mensagemErro", ex.getMessage());
+            return responder(id, parcial, "mensagemErro", ex.getMessage(), model, redirectAttributes);
         }
-        return "redirect:/orcamentos/" + id;
     }
 
     @PostMapping("/{id}/itens/{itemId}/remover")
     public String removerItem(@PathVariable Long id,
                               @PathVariable Long itemId,
+                              @RequestHeader(name = "HX-Request", defaultValue = "false") boolean parcial,
+                              Model model,
                               RedirectAttributes redirectAttributes) {
         try {
-            orcamentoServico.removerItem(id, itemId);
-            redirectAttributes.addFlashAttribute("mensagemSucesso", "Item removido");
+            repeticaoConflito.executar(() -> orcamentoServico.removerItem(id, itemId));
+            return responder(id, parcial, "mensagemSucesso", "Item removido", model, redirectAttributes);
         } catch (Exception ex) {
-            redirectAttributes.addFlashAttribute("mensagemErro", ex.getMessage());
+            return responder(id, parcial, "mensagemErro", ex.getMessage(), model, redirectAttributes);
         }
-        return "redirect:/orcamentos/" + id;
     }
 
     @PostMapping("/{id}/ajuste")
     public String aplicarAjuste(@PathVariable Long id,
                                 @RequestParam TipoAjuste tipoAjuste,
                                 @RequestParam BigDecimal percentual,
+                                @RequestHeader(name = "HX-Request", defaultValue = "false") boolean parcial,
+                                Model model,
                                 RedirectAttributes redirectAttributes) {
         try {
-            orcamentoServico.aplicarAjuste(id, tipoAjuste, percentual);
-            redirectAttributes.addFlashAttribute("mensagemSucesso", "Ajuste aplicado");
+            repeticaoConflito.executar(() -> orcamentoServico.aplicarAjuste(id, tipoAjuste, percentual));
+            return responder(id, parcial, "mensagemSucesso", "Ajuste aplicado", model, redirectAttributes);
         } catch (Exception ex) {
-            redirectAttributes.addFlashAttribute("mensagemErro", ex.getMessage());
+            return responder(id, parcial, "mensagemErro", ex.getMessage(), model, redirectAttributes);
         }
-        return "redirect:/orcamentos/" + id;
     }
 
     @PostMapping("/{id}/status")
@@ -178,7 +195,7 @@ public class OrcamentoControlador {
                                 @RequestParam StatusOrcamento novoStatus,
                                 RedirectAttributes redirectAttributes) {
         try {
-            orcamentoServico.alterarStatus(id, novoStatus);
+            repeticaoConflito.executar(() -> orcamentoServico.alterarStatus(id, novoStatus));
             redirectAttributes.addFlashAttribute("mensagemSucesso", "Status atualizado");
         } catch (Exception ex) {
             redirectAttributes.addFlashAttribute("mensagemErro", ex.getMessage());
@@ -186,62 +203,38 @@ public class OrcamentoControlador {
         return "redirect:/orcamentos/" + id;
     }
 
-    @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> baixarPdf(@PathVariable Long id) {
-        Orcamento orcamento = orcamentoServico.buscarPorId(id);
-        byte[] pdf = gerarPdf(orcamento);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orcamento-" + id + ".pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+    private String responder(Long id,
+                             boolean parcial,
+                             String chaveMensagem,
+                             String mensagem,
+                             Model model,
+                             RedirectAttributes redirectAttributes) {
+        if (!parcial) {
+            redirectAttributes.addFlashAttribute(chaveMensagem, mensagem);
+            return "redirect:/orcamentos/" + id;
+        }
+        model.addAttribute(chaveMensagem, mensagem);
+        model.addAttribute("orcamento", orcamentoServico.buscarDetalhe(id));
+        model.addAttribute("parcial", true);
+        return "orcamentos/detalhe :: editor";
     }
 
-    private byte[] gerarPdf(Orcamento orcamento) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        com.lowagie.text.Document document = new com.lowagie.text.Document();
+    @GetMapping("/{id}/pdf")
+    public void baixarPdf(@PathVariable Long id,
+                          ServletWebRequest requisicao,
+                          HttpServletResponse resposta) throws IOException {
+        if (requisicao.checkNotModified(orcamentoPdfServico.calcularEtag(id))) {
+            return;
+        }
+        resposta.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        resposta.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orcamento-" + id + ".pdf");
+        resposta.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
         try {
-            com.lowagie.text.pdf.PdfWriter.getInstance(document, baos);
-            document.open();
-            document.add(new com.lowagie.text.Paragraph("Ampliart"));
-            document.add(new com.lowagie.text.Paragraph("Orcamento: " + orcamento.getId()));
-            document.add(new com.lowagie.text.Paragraph("Data: " + orcamento.getDataCadastro()));
-            document.add(new com.lowagie.text.Paragraph("Cliente: " + orcamento.getClienteNome() + " - " + orcamento.getClienteTelefone()));
-            if (orcamento.getClienteEmail() != null) {
-                document.add(new com.lowagie.text.Paragraph("Email: " + orcamento.getClienteEmail()));
-            }
-            document.add(new com.lowagie.text.Paragraph("Status: " + orcamento.getStatus()));
-
-            document.add(new com.lowagie.text.Paragraph(" "));
-            com.lowagie.text.pdf.PdfPTable tabela = new com.lowagie.text.pdf.PdfPTable(4);
-            tabela.setWidthPercentage(100);
-            tabela.addCell("Produto");
-            tabela.addCell("Qtd");
-            tabela.addCell("Preco unit");
-            tabela.addCell("Subtotal");
-            for (OrcamentoItem item : orcamento.getItens()) {
-                tabela.addCell(item.getProduto().getNome());
-                tabela.addCell(String.valueOf(item.getQuantidade()));
-                tabela.addCell(item.getPrecoUnitario().toString());
-                tabela.addCell(item.getSubtotal().toString());
-            }
-            document.add(tabela);
-
-            document.add(new com.lowagie.text.Paragraph(" "));
-            document.add(new com.lowagie.text.Paragraph("Total bruto: " + orcamento.getTotalBruto()));
-            if (orcamento.getPercentualAjuste() != null && orcamento.getTipoAjuste() != null) {
-                String sinal = orcamento.getTipoAjuste() == TipoAjuste.desconto ? "-" : "+";
-                document.add(new com.lowagie.text.Paragraph("Ajuste: " + sinal + orcamento.getPercentualAjuste() + "%"));
-                document.add(new com.lowagie.text.Paragraph("Valor do ajuste: " + orcamento.getValorAjuste()));
-            }
-            document.add(new com.lowagie.text.Paragraph("Total final: " + orcamento.getTotalFinal()));
-            if (orcamento.getDataConclusao() != null) {
-                document.add(new com.lowagie.text.Paragraph("Concluido em: " + orcamento.getDataConclusao()));
-            }
-        } catch (Exception ex) {
-            throw new IllegalStateException("Erro ao gerar PDF", ex);
-        } finally {
-            document.close();
+            orcamentoPdfServico.escrever(id, resposta.getOutputStream());
+        } catch (FilaSaturadaException ex) {
+            resposta.reset();
+            resposta.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getTentarNovamenteEmSegundos()));
+            resposta.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage());
         }
-        return baos.toByteArray();
     }
 }
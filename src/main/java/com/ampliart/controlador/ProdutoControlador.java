@@ -2,15 +2,25 @@ package com.ampliart.controlador;
 
 import com.ampliart.dominio.Produto;
 import com.ampliart.servico.CategoriaServico;
+import com.ampliart.servico.ConflitoEdicaoException;
+import com.ampliart.servico.ImportacaoProdutoServico;
+import com.ampliart.servico.Janela;
 import com.ampliart.servico.ProdutoServico;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 
 @Controller
 @RequestMapping("/produtos")
@@ -18,25 +28,45 @@ public class ProdutoControlador {
 
     private final ProdutoServico produtoServico;
     private final CategoriaServico categoriaServico;
+    private final ImportacaoProdutoServico importacaoProdutoServico;
 
-    public ProdutoControlador(ProdutoServico produtoServico, CategoriaServico categoriaServico) {
+    public ProdutoControlador(ProdutoServico produtoServico,
+                              CategoriaServico categoriaServico,
+                              ImportacaoProdutoServico importacaoProdutoServico) {
         this.produtoServico = produtoServico;
         this.categoriaServico = categoriaServico;
+        this.importacaoProdutoServico = importacaoProdutoServico;
     }
 
     @GetMapping
     public String listar(@RequestParam(required = false) String nome,
                          @RequestParam(required = false) String codigo,
                          @RequestParam(required = false) Boolean ativo,
+                         @RequestParam(defaultValue = "nome") String ordenarPor,
+                         @RequestParam(defaultValue = "ASC") Sort.Direction direcao,
+                         @RequestParam(required = false) Long depoisId,
+                         @RequestParam(defaultValue = "50") int tamanho,
                          Model model) {
-        List<Produto> produtos = produtoServico.listar(nome, codigo, ativo);
+        Janela<Produto> produtos = produtoServico.listarPagina(nome, codigo, ativo,
+                ordenarPor, direcao, depoisId, tamanho);
         model.addAttribute("produtos", produtos);
         model.addAttribute("nome", nome);
         model.addAttribute("codigo", codigo);
         model.addAttribute("ativo", ativo);
+        model.addAttribute("ordenarPor", ordenarPor);
+        model.addAttribute("direcao", direcao);
+        model.addAttribute("tamanho", tamanho);
         return "produtos/lista";
     }
 
+    @GetMapping("/opcoes")
+    public ResponseEntity<Janela<ProdutoServico.OpcaoProduto>> opcoes(@RequestParam(required = false) String nome,
+                                                                      @RequestParam(required = false) Long categoriaId,
+                                                                      @RequestParam(required = false) Long depoisId,
+                                                                      @RequestParam(defaultValue = "20") int tamanho) {
+        return ResponseEntity.ok(produtoServico.buscarOpcoes(nome, categoriaId, depoisId, tamanho));
+    }
+
     @GetMapping("/novo")
     public String novo(Model model) {
         model.addAttribute("produto", new Produto());
@@ -87,6 +117,10 @@ public class ProdutoControlador {
             produtoServico.salvar(produto);
             redirectAttributes.addFlashAttribute("mensagemSucesso", "Produto atualizado com sucesso");
             return "redirect:/produtos";
+        } catch (ConflitoEdicaoException ex) {
+            model.addAttribute("mensagemErro", ex.getMessage());
+            model.addAttribute("categorias", categoriaServico.listar());
+            return "produtos/formulario";
         } catch (IllegalArgumentException ex) {
             bindingResult.rejectValue("codigo", "", ex.getMessage());
             model.addAttribute("categorias", categoriaServico.listar());
@@ -94,6 +128,29 @@ public class ProdutoControlador {
         }
     }
 
+    @GetMapping("/importar")
+    public String importacao() {
+        return "produtos/importacao";
+    }
+
+    @PostMapping("/importar")
+    public String importar(@RequestParam("arquivo") MultipartFile arquivo,
+                           Model model) {
+        if (arquivo.isEmpty()) {
+            model.addAttribute("mensagemErro", "Selecione um arquivo CSV");
+            return "produtos/importacao";
+        }
+        try (Reader leitor = new InputStreamReader(arquivo.getInputStream(), StandardCharsets.UTF_8)) {
+            model.addAttribute("relatorio", importacaoProdutoServico.importar(leitor));
+            model.addAttribute("mensagemSucesso", "Importacao concluida");
+        } catch (IOException | IllegalArgumentException ex) {
+            model.addAttribute("mensagemErro", ex.getMessage());
+        } catch (UncheckedIOException ex) {
+            model.addAttribute("mensagemErro", "Erro ao ler o arquivo: " + ex.getCause().getMessage());
+        }
+        return "produtos/importacao";
+    }
+
     @GetMapping("/{id}")
     public String detalhes(@PathVariable Long id, Model model) {
         Produto produto = produtoServico.buscarPorId(id);
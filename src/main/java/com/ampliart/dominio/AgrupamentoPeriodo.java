@@ -0,0 +1,7 @@
+package com.ampliart.dominio;
+
+public enum AgrupamentoPeriodo {
+    dia,
+    semana,
+    mes
+}
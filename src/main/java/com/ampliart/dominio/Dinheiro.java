@@ -0,0 +1,101 @@
+package com.ampliart.dominio;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public final class Dinheiro implements Comparable<Dinheiro> {
+
+    public static final Dinheiro ZERO = new Dinheiro(0);
+
+    private static final long[] POTENCIAS_DE_DEZ = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L
+    };
+
+    private final long centavos;
+
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+
+    public static Dinheiro deCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Dinheiro(centavos);
+    }
+
+    public static Dinheiro de(BigDecimal valor) {
+        BigDecimal ajustado = valor.scale() == 2 ? valor : valor.setScale(2, RoundingMode.HALF_UP);
+        return deCentavos(ajustado.movePointRight(2).longValueExact());
+    }
+
+    public static Dinheiro produto(BigDecimal precoUnitario, int quantidade) {
+        if (precoUnitario.scale() >= 0 && precoUnitario.scale() <= 2) {
+            return de(precoUnitario).multiplicar(quantidade);
+        }
+        return de(precoUnitario.multiply(BigDecimal.valueOf(quantidade)));
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public Dinheiro somar(Dinheiro outro) {
+        return deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro subtrair(Dinheiro outro) {
+        return deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro multiplicar(int quantidade) {
+        return deCentavos(Math.multiplyExact(centavos, (long) quantidade));
+    }
+
+    public Dinheiro negar() {
+        return deCentavos(Math.negateExact(centavos));
+    }
+
+    public Dinheiro percentual(BigDecimal percentual) {
+        int escala = percentual.scale();
+        if (escala >= 0 && escala < POTENCIAS_DE_DEZ.length && percentual.precision() <= 18) {
+            long fator = percentual.movePointRight(escala).longValueExact();
+            long divisor = 100 * POTENCIAS_DE_DEZ[escala];
+            long multiplicado = centavos * fator;
+            if (Math.multiplyHigh(centavos, fator) == (multiplicado >> 63)) {
+                return deCentavos(dividirArredondando(multiplicado, divisor));
+            }
+        }
+        return de(paraBigDecimal().multiply(percentual).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP));
+    }
+
+    public BigDecimal paraBigDecimal() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof Dinheiro dinheiro && dinheiro.centavos == centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return paraBigDecimal().toPlainString();
+    }
+
+    private static long dividirArredondando(long dividendo, long divisor) {
+        long quociente = dividendo / divisor;
+        long resto = dividendo % divisor;
+        if (Math.abs(resto) * 2 >= divisor) {
+            quociente += Long.signum(dividendo);
+        }
+        return quociente;
+    }
+}
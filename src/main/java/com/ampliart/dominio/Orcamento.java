@@ -13,7 +13,8 @@ import java.util.List;
 public class Orcamento {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orcamento_seq")
+    @SequenceGenerator(name = "orcamento_seq", sequenceName = "orcamento_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -60,6 +61,10 @@ public class Orcamento {
     @Column(name = "data_conclusao")
     private LocalDateTime dataConclusao;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     @OneToMany(mappedBy = "orcamento", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<OrcamentoItem> itens = new ArrayList<>();
 
@@ -163,6 +168,10 @@ public class Orcamento {
         return dataAtualizacao;
     }
 
+    public void setDataAtualizacao(LocalDateTime dataAtualizacao) {
+        this.dataAtualizacao = dataAtualizacao;
+    }
+
     public LocalDateTime getDataConclusao() {
         return dataConclusao;
     }
@@ -178,4 +187,12 @@ public class Orcamento {
     public void setItens(List<OrcamentoItem> itens) {
         this.itens = itens;
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 }
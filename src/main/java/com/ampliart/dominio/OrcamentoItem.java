@@ -10,7 +10,8 @@ import java.math.BigDecimal;
 public class OrcamentoItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orcamento_item_seq")
+    @SequenceGenerator(name = "orcamento_item_seq", sequenceName = "orcamento_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,11 +32,19 @@ public class OrcamentoItem {
     @Column(name = "preco_unitario", nullable = false, precision = 19, scale = 2)
     private BigDecimal precoUnitario;
 
+    @DecimalMin("0.00")
+    @Column(name = "custo_unitario", precision = 19, scale = 2)
+    private BigDecimal custoUnitario;
+
     @NotNull
     @DecimalMin("0.00")
     @Column(name = "subtotal", nullable = false, precision = 19, scale = 2)
     private BigDecimal subtotal;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     public Long getId() {
         return id;
     }
@@ -76,6 +85,14 @@ public class OrcamentoItem {
         this.precoUnitario = precoUnitario;
     }
 
+    public BigDecimal getCustoUnitario() {
+        return custoUnitario;
+    }
+
+    public void setCustoUnitario(BigDecimal custoUnitario) {
+        this.custoUnitario = custoUnitario;
+    }
+
     public BigDecimal getSubtotal() {
         return subtotal;
     }
@@ -83,4 +100,12 @@ public class OrcamentoItem {
     public void setSubtotal(BigDecimal subtotal) {
         this.subtotal = subtotal;
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 }
@@ -0,0 +1,78 @@
+package com.ampliart.dominio;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "venda_diaria")
+public class VendaDiaria {
+
+    @Id
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "receita", nullable = false, precision = 19, scale = 2)
+    private BigDecimal receita = BigDecimal.ZERO;
+
+    @Column(name = "gasto", nullable = false, precision = 19, scale = 2)
+    private BigDecimal gasto = BigDecimal.ZERO;
+
+    @Column(name = "lucro", nullable = false, precision = 19, scale = 2)
+    private BigDecimal lucro = BigDecimal.ZERO;
+
+    @Column(name = "quantidade_vendas", nullable = false)
+    private Integer quantidadeVendas = 0;
+
+    @Column(name = "quantidade_itens", nullable = false)
+    private Integer quantidadeItens = 0;
+
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public void setDia(LocalDate dia) {
+        this.dia = dia;
+    }
+
+    public BigDecimal getReceita() {
+        return receita;
+    }
+
+    public void setReceita(BigDecimal receita) {
+        this.receita = receita;
+    }
+
+    public BigDecimal getGasto() {
+        return gasto;
+    }
+
+    public void setGasto(BigDecimal gasto) {
+        this.gasto = gasto;
+    }
+
+    public BigDecimal getLucro() {
+        return lucro;
+    }
+
+    public void setLucro(BigDecimal lucro) {
+        this.lucro = lucro;
+    }
+
+    public Integer getQuantidadeVendas() {
+        return quantidadeVendas;
+    }
+
+    public void setQuantidadeVendas(Integer quantidadeVendas) {
+        this.quantidadeVendas = quantidadeVendas;
+    }
+
+    public Integer getQuantidadeItens() {
+        return quantidadeItens;
+    }
+
+    public void setQuantidadeItens(Integer quantidadeItens) {
+        this.quantidadeItens = quantidadeItens;
+    }
+}
@@ -0,0 +1,7 @@
+package com.ampliart.repo;
+
+public interface AjusteContagem {
+    Long getId();
+    Integer getAnterior();
+    Integer getContado();
+}
@@ -7,4 +7,5 @@ import java.util.Optional;
 
 public interface CategoriaRepositorio extends JpaRepository<Categoria, Long> {
     Optional<Categoria> findByNome(String nome);
+    Optional<Categoria> findFirstByNomeIgnoreCaseOrderByIdAsc(String nome);
 }
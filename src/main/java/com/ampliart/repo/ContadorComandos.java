@@ -0,0 +1,36 @@
+package com.ampliart.repo;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class ContadorComandos implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTAGEM = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] contagem = CONTAGEM.get();
+        if (contagem != null) {
+            contagem[0]++;
+        }
+        return sql;
+    }
+
+    public static boolean ativo() {
+        return CONTAGEM.get() != null;
+    }
+
+    public static void iniciar() {
+        CONTAGEM.set(new int[1]);
+    }
+
+    public static int contagem() {
+        int[] contagem = CONTAGEM.get();
+        return contagem != null ? contagem[0] : 0;
+    }
+
+    public static int encerrar() {
+        int total = contagem();
+        CONTAGEM.remove();
+        return total;
+    }
+}
@@ -0,0 +1,17 @@
+package com.ampliart.repo;
+
+import com.ampliart.dominio.TipoMovimentacaoEstoque;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MovimentacaoEstoqueConsulta {
+
+    List<MovimentacaoLinha> buscarPagina(Long produtoId,
+                                         TipoMovimentacaoEstoque tipo,
+                                         LocalDateTime inicio,
+                                         LocalDateTime fim,
+                                         LocalDateTime cursorData,
+                                         Long cursorId,
+                                         int limite);
+}
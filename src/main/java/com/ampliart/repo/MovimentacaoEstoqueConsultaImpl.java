@@ -0,0 +1,118 @@
+package com.ampliart.repo;
+
+import com.ampliart.dominio.TipoMovimentacaoEstoque;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MovimentacaoEstoqueConsultaImpl implements MovimentacaoEstoqueConsulta {
+
+    private static final class Linha implements MovimentacaoLinha {
+        private final Long id;
+        private final LocalDateTime dataMovimentacao;
+        private final Long produtoId;
+        private final String produtoNome;
+        private final TipoMovimentacaoEstoque tipo;
+        private final Integer quantidade;
+        private final String motivo;
+
+        private Linha(Tuple tupla) {
+            this.id = tupla.get("id", Long.class);
+            this.dataMovimentacao = tupla.get("dataMovimentacao", LocalDateTime.class);
+            this.produtoId = tupla.get("produtoId", Long.class);
+            this.produtoNome = tupla.get("produtoNome", String.class);
+            this.tipo = tupla.get("tipo", TipoMovimentacaoEstoque.class);
+            this.quantidade = tupla.get("quantidade", Integer.class);
+            this.motivo = tupla.get("motivo", String.class);
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDateTime getDataMovimentacao() {
+            return dataMovimentacao;
+        }
+
+        @Override
+        public Long getProdutoId() {
+            return produtoId;
+        }
+
+        @Override
+        public String getProdutoNome() {
+            return produtoNome;
+        }
+
+        @Override
+        public TipoMovimentacaoEstoque getTipo() {
+            return tipo;
+        }
+
+        @Override
+        public Integer getQuantidade() {
+            return quantidade;
+        }
+
+        @Override
+        public String getMotivo() {
+            return motivo;
+        }
+    }
+
+    private final EntityManager entityManager;
+
+    public MovimentacaoEstoqueConsultaImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<MovimentacaoLinha> buscarPagina(Long produtoId,
+                                                TipoMovimentacaoEstoque tipo,
+                                                LocalDateTime inicio,
+                                                LocalDateTime fim,
+                                                LocalDateTime cursorData,
+                                                Long cursorId,
+                                                int limite) {
+        StringBuilder jpql = new StringBuilder("select m.id as id, m.dataMovimentacao as dataMovimentacao, " +
+                "p.id as produtoId, p.nome as produtoNome, m.tipo as tipo, m.quantidade as quantidade, " +
+                "m.motivo as motivo from MovimentacaoEstoque m join m.produto p where 1 = 1");
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        if (produtoId != null) {
+            jpql.append(" and m.produto.id = :produtoId");
+            parametros.put("produtoId", produtoId);
+        }
+        if (tipo != null) {
+            jpql.append(" and m.tipo = :tipo");
+            parametros.put("tipo", tipo);
+        }
+        if (inicio != null) {
+            jpql.append(" and m.dataMovimentacao >= :inicio");
+            parametros.put("inicio", inicio);
+        }
+        if (fim != null) {
+            jpql.append(" and m.dataMovimentacao < :fim");
+            parametros.put("fim", fim);
+        }
+        if (cursorData != null && cursorId != null) {
+            jpql.append(" and (m.dataMovimentacao, m.id) < (:cursorData, :cursorId)");
+            parametros.put("cursorData", cursorData);
+            parametros.put("cursorId", cursorId);
+        }
+        jpql.append(" order by m.dataMovimentacao desc, m.id desc");
+
+        TypedQuery<Tuple> consulta = entityManager.createQuery(jpql.toString(), Tuple.class);
+        parametros.forEach(consulta::setParameter);
+        return consulta.setMaxResults(limite)
+                .getResultStream()
+                .<MovimentacaoLinha>map(Linha::new)
+                .toList();
+    }
+}
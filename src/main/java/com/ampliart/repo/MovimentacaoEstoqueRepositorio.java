@@ -2,6 +2,35 @@ package com.ampliart.repo;
 
 import com.ampliart.dominio.MovimentacaoEstoque;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface MovimentacaoEstoqueRepositorio extends JpaRepository<MovimentacaoEstoque, Long> {
+import java.time.LocalDateTime;
+
+public interface MovimentacaoEstoqueRepositorio extends JpaRepository<MovimentacaoEstoque, Long>,
+        MovimentacaoEstoqueConsulta {
+
+    @Modifying
+    @Query(value = "insert into ampliart.movimentacao_estoque (produto_id, tipo, quantidade, motivo, data_movimentacao) " +
+            "select v.id, :tipo, v.quantidade, :motivo, :agora " +
+            "from unnest(cast(:ids as bigint[]), cast(:quantidades as integer[])) as v(id, quantidade)",
+            nativeQuery = true)
+    int registrarEmLote(@Param("ids") Long[] ids,
+                        @Param("quantidades") Integer[] quantidades,
+                        @Param("tipo") String tipo,
+                        @Param("motivo") String motivo,
+                        @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query(value = "insert into ampliart.movimentacao_estoque (produto_id, tipo, quantidade, motivo, data_movimentacao) " +
+            "select v.id, v.tipo, v.quantidade, v.motivo, :agora " +
+            "from unnest(cast(:ids as bigint[]), cast(:tipos as varchar[]), cast(:quantidades as integer[]), " +
+            "cast(:motivos as varchar[])) as v(id, tipo, quantidade, motivo)",
+            nativeQuery = true)
+    int registrarLinhasEmLote(@Param("ids") Long[] ids,
+                              @Param("tipos") String[] tipos,
+                              @Param("quantidades") Integer[] quantidades,
+                              @Param("motivos") String[] motivos,
+                              @Param("agora") LocalDateTime agora);
 }
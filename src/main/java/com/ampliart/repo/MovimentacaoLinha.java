@@ -0,0 +1,15 @@
+package com.ampliart.repo;
+
+import com.ampliart.dominio.TipoMovimentacaoEstoque;
+
+import java.time.LocalDateTime;
+
+public interface MovimentacaoLinha {
+    Long getId();
+    LocalDateTime getDataMovimentacao();
+    Long getProdutoId();
+    String getProdutoNome();
+    TipoMovimentacaoEstoque getTipo();
+    Integer getQuantidade();
+    String getMotivo();
+}
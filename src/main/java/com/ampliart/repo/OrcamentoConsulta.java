@@ -0,0 +1,15 @@
+package com.ampliart.repo;
+
+import com.ampliart.dominio.StatusOrcamento;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrcamentoConsulta {
+
+    List<Long> buscarIds(StatusOrcamento status,
+                         LocalDateTime inicio,
+                         LocalDateTime fim,
+                         Long depoisId,
+                         int limite);
+}
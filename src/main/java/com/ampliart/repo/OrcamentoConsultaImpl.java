@@ -0,0 +1,50 @@
+package com.ampliart.repo;
+
+import com.ampliart.dominio.StatusOrcamento;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OrcamentoConsultaImpl implements OrcamentoConsulta {
+
+    private final EntityManager entityManager;
+
+    public OrcamentoConsultaImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Long> buscarIds(StatusOrcamento status,
+                                LocalDateTime inicio,
+                                LocalDateTime fim,
+                                Long depoisId,
+                                int limite) {
+        StringBuilder jpql = new StringBuilder("select o.id from Orcamento o where 1 = 1");
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        if (status != null) {
+            jpql.append(" and o.status = :status");
+            parametros.put("status", status);
+        }
+        if (inicio != null) {
+            jpql.append(" and o.dataCadastro >= :inicio");
+            parametros.put("inicio", inicio);
+        }
+        if (fim != null) {
+            jpql.append(" and o.dataCadastro < :fim");
+            parametros.put("fim", fim);
+        }
+        if (depoisId != null) {
+            jpql.append(" and o.id > :depoisId");
+            parametros.put("depoisId", depoisId);
+        }
+        jpql.append(" order by o.id");
+
+        TypedQuery<Long> consulta = entityManager.createQuery(jpql.toString(), Long.class);
+        parametros.forEach(consulta::setParameter);
+        return consulta.setMaxResults(limite).getResultList();
+    }
+}
@@ -0,0 +1,27 @@
+package com.ampliart.repo;
+
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.dominio.StatusOrcamento;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+public final class OrcamentoEspecificacoes {
+
+    private OrcamentoEspecificacoes() {
+    }
+
+    public static Specification<Orcamento> todos() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+
+    public static Specification<Orcamento> comStatus(StatusOrcamento status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Orcamento> cadastradoEntre(LocalDateTime inicio, LocalDateTime fim) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("dataCadastro"), inicio),
+                cb.lessThan(root.get("dataCadastro"), fim));
+    }
+}
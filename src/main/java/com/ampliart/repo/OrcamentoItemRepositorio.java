@@ -2,15 +2,20 @@ package com.ampliart.repo;
 
 import com.ampliart.dominio.OrcamentoItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDateTime;
-import java.util.List;
+import java.math.BigDecimal;
 
 public interface OrcamentoItemRepositorio extends JpaRepository<OrcamentoItem, Long> {
 
-    @Query("select i from OrcamentoItem i join i.orcamento o where o.status = 'venda_concluida' and o.dataConclusao between :inicio and :fim")
-    List<OrcamentoItem> buscarItensConcluidosPeriodo(@Param("inicio") LocalDateTime inicio,
-                                                     @Param("fim") LocalDateTime fim);
+    @Modifying
+    @Query(value = "update ampliart.orcamento_item i set custo_unitario = v.custo " +
+            "from unnest(cast(:produtoIds as bigint[]), cast(:custos as numeric[])) as v(produto_id, custo) " +
+            "where i.orcamento_id = :orcamentoId and i.produto_id = v.produto_id",
+            nativeQuery = true)
+    int registrarCustos(@Param("orcamentoId") Long orcamentoId,
+                        @Param("produtoIds") Long[] produtoIds,
+                        @Param("custos") BigDecimal[] custos);
 }
@@ -2,14 +2,20 @@ package com.ampliart.repo;
 
 import com.ampliart.dominio.Orcamento;
 import com.ampliart.dominio.StatusOrcamento;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
-public interface OrcamentoRepositorio extends JpaRepository<Orcamento, Long> {
+public interface OrcamentoRepositorio extends JpaRepository<Orcamento, Long>, JpaSpecificationExecutor<Orcamento>,
+        OrcamentoConsulta {
     List<Orcamento> findByStatus(StatusOrcamento status);
 
     @Query("select o from Orcamento o where o.status = :status and o.dataConclusao between :inicio and :fim")
@@ -17,12 +23,18 @@ public interface OrcamentoRepositorio extends JpaRepository<Orcamento, Long> {
                                             @Param("inicio") LocalDateTime inicio,
                                             @Param("fim") LocalDateTime fim);
 
-    @Query("select o from Orcamento o where o.dataCadastro between :inicio and :fim")
-    List<Orcamento> buscarPorDataCadastro(@Param("inicio") LocalDateTime inicio,
-                                          @Param("fim") LocalDateTime fim);
+    @EntityGraph(attributePaths = {"itens", "itens.produto"})
+    @Query("select o from Orcamento o where o.id = :id")
+    Optional<Orcamento> buscarComItens(@Param("id") Long id);
 
-    @Query("select o from Orcamento o where o.status = :status and o.dataCadastro between :inicio and :fim")
-    List<Orcamento> buscarPorStatusEDataCadastro(@Param("status") StatusOrcamento status,
-                                                 @Param("inicio") LocalDateTime inicio,
-                                                 @Param("fim") LocalDateTime fim);
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select o from Orcamento o where o.id = :id")
+    Optional<Orcamento> buscarParaEdicao(@Param("id") Long id);
+
+    @Query("select o.versao as versao, o.dataAtualizacao as dataAtualizacao, " +
+            "max(p.dataAtualizacao) as produtosAtualizados " +
+            "from Orcamento o left join o.itens i left join i.produto p " +
+            "where o.id = :id " +
+            "group by o.id, o.versao, o.dataAtualizacao")
+    Optional<VersaoOrcamento> buscarVersao(@Param("id") Long id);
 }
@@ -0,0 +1,7 @@
+package com.ampliart.repo;
+
+public interface ProdutoCodigo {
+    Long getId();
+    String getCodigo();
+    String getNome();
+}
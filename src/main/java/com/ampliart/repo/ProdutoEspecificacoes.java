@@ -0,0 +1,84 @@
+package com.ampliart.repo;
+
+import com.ampliart.dominio.Produto;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.text.Normalizer;
+
+public final class ProdutoEspecificacoes {
+
+    private ProdutoEspecificacoes() {
+    }
+
+    public static Specification<Produto> todos() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+
+    public static Specification<Produto> nomeContem(String nome) {
+        String padrao = "%" + escaparLike(removerAcentos(nome.toLowerCase())) + "%";
+        return (root, query, cb) -> cb.like(
+                cb.function("ampliart.f_unaccent", String.class, cb.lower(root.get("nome"))),
+                padrao,
+                '\\');
+    }
+
+    public static Specification<Produto> ordenadoPorSimilaridade(String nome) {
+        return (root, query, cb) -> {
+            query.orderBy(cb.desc(similaridade(root, cb, nome)), cb.asc(root.get("id")));
+            return cb.conjunction();
+        };
+    }
+
+    public static Specification<Produto> menosSimilarQue(String nome, Long ancoraId) {
+        return (root, query, cb) -> {
+            Subquery<Double> ancora = query.subquery(Double.class);
+            Root<Produto> produtoAncora = ancora.from(Produto.class);
+            ancora.select(similaridade(produtoAncora, cb, nome))
+                    .where(cb.equal(produtoAncora.get("id"), ancoraId));
+            Expression<Double> atual = similaridade(root, cb, nome);
+            return cb.or(
+                    cb.lessThan(atual, ancora),
+                    cb.and(cb.equal(atual, ancora), cb.greaterThan(root.get("id"), ancoraId)));
+        };
+    }
+
+    private static Expression<Double> similaridade(Root<Produto> root, CriteriaBuilder cb, String nome) {
+        return cb.function("public.similarity", Double.class,
+                cb.function("ampliart.f_unaccent", String.class, cb.lower(root.get("nome"))),
+                cb.literal(removerAcentos(nome.toLowerCase())));
+    }
+
+    public static String removerAcentos(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+
+    public static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    public static Specification<Produto> comCodigo(String codigo) {
+        return (root, query, cb) -> cb.equal(root.get("codigo"), codigo);
+    }
+
+    public static Specification<Produto> ativo(Boolean ativo) {
+        return (root, query, cb) -> cb.equal(root.get("ativo"), ativo);
+    }
+
+    public static Specification<Produto> daCategoria(Long categoriaId) {
+        return (root, query, cb) -> cb.equal(root.get("categoria").get("id"), categoriaId);
+    }
+
+    public static Specification<Produto> carregandoCategoria() {
+        return (root, query, cb) -> {
+            root.fetch("categoria", JoinType.LEFT);
+            return cb.conjunction();
+        };
+    }
+}
@@ -2,15 +2,108 @@ package com.ampliart.repo;
 
 import com.ampliart.dominio.Produto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProdutoRepositorio extends JpaRepository<Produto, Long> {
+public interface ProdutoRepositorio extends JpaRepository<Produto, Long>, JpaSpecificationExecutor<Produto> {
     Optional<Produto> findByCodigo(String codigo);
-    List<Produto> findByNomeContainingIgnoreCase(String nome);
-    List<Produto> findByNomeContainingIgnoreCaseAndAtivo(String nome, Boolean ativo);
-    List<Produto> findByAtivo(Boolean ativo);
     List<Produto> findByNomeContainingIgnoreCaseAndCategoriaId(String nome, Long categoriaId);
     List<Produto> findByCategoriaId(Long categoriaId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Produto p set p.quantidadeEstoque = p.quantidadeEstoque - :quantidade, p.dataAtualizacao = :agora, " +
+            "p.versao = p.versao + 1 " +
+            "where p.id = :id and p.quantidadeEstoque >= :quantidade")
+    int baixarEstoque(@Param("id") Long id,
+                      @Param("quantidade") Integer quantidade,
+                      @Param("agora") LocalDateTime agora);
+
+    @Query(value = "with bloqueados as (" +
+            "    select p.id from ampliart.produto p where p.id = any(cast(:ids as bigint[])) order by p.id for update) " +
+            "update ampliart.produto p " +
+            "set quantidade_estoque = p.quantidade_estoque - v.quantidade, data_atualizacao = :agora, versao = p.versao + 1 " +
+            "from bloqueados b " +
+            "join unnest(cast(:ids as bigint[]), cast(:quantidades as integer[])) as v(id, quantidade) on v.id = b.id " +
+            "where p.id = b.id and p.quantidade_estoque >= v.quantidade " +
+            "returning p.id",
+            nativeQuery = true)
+    List<Long> baixarEstoqueEmLote(@Param("ids") Long[] ids,
+                                   @Param("quantidades") Integer[] quantidades,
+                                   @Param("agora") LocalDateTime agora);
+
+    @Query(value = "with bloqueados as (" +
+            "    select p.id from ampliart.produto p where p.id = any(cast(:ids as bigint[])) order by p.id for update) " +
+            "update ampliart.produto p " +
+            "set quantidade_estoque = p.quantidade_estoque + v.delta, data_atualizacao = :agora, versao = p.versao + 1 " +
+            "from bloqueados b " +
+            "join unnest(cast(:ids as bigint[]), cast(:deltas as integer[])) as v(id, delta) on v.id = b.id " +
+            "where p.id = b.id and p.quantidade_estoque + v.delta >= 0 " +
+            "returning p.id",
+            nativeQuery = true)
+    List<Long> ajustarEstoqueEmLote(@Param("ids") Long[] ids,
+                                    @Param("deltas") Integer[] deltas,
+                                    @Param("agora") LocalDateTime agora);
+
+    @Query(value = "with atual as (" +
+            "    select p.id, p.quantidade_estoque from ampliart.produto p " +
+            "    where p.id = any(cast(:ids as bigint[])) order by p.id for update) " +
+            "update ampliart.produto p " +
+            "set quantidade_estoque = v.contado, data_atualizacao = :agora, versao = p.versao + 1 " +
+            "from atual a " +
+            "join unnest(cast(:ids as bigint[]), cast(:contados as integer[])) as v(id, contado) on v.id = a.id " +
+            "where p.id = a.id " +
+            "returning p.id as id, a.quantidade_estoque as anterior, v.contado as contado",
+            nativeQuery = true)
+    List<AjusteContagem> contarEstoqueEmLote(@Param("ids") Long[] ids,
+                                             @Param("contados") Integer[] contados,
+                                             @Param("agora") LocalDateTime agora);
+
+    @Query(value = "select p.id as id, p.codigo as codigo, p.nome as nome from ampliart.produto p " +
+            "where p.codigo = any(cast(:codigos as varchar[]))",
+            nativeQuery = true)
+    List<ProdutoCodigo> buscarPorCodigos(@Param("codigos") String[] codigos);
+
+    @Modifying
+    @Query(value = "insert into ampliart.produto (codigo, nome, descricao, categoria_id, preco_compra, preco_venda, " +
+            "quantidade_estoque, ativo, data_cadastro, data_atualizacao) " +
+            "select v.codigo, v.nome, v.descricao, v.categoria_id, v.preco_compra, v.preco_venda, " +
+            "v.quantidade_estoque, v.ativo, :agora, :agora " +
+            "from unnest(cast(:codigos as varchar[]), cast(:nomes as varchar[]), cast(:descricoes as text[]), " +
+            "cast(:categoriaIds as bigint[]), cast(:precosCompra as numeric[]), cast(:precosVenda as numeric[]), " +
+            "cast(:quantidades as integer[]), cast(:ativos as boolean[])) " +
+            "as v(codigo, nome, descricao, categoria_id, preco_compra, preco_venda, quantidade_estoque, ativo) " +
+            "on conflict on constraint uk_produto_codigo do update set " +
+            "nome = excluded.nome, " +
+            "descricao = excluded.descricao, " +
+            "categoria_id = excluded.categoria_id, " +
+            "preco_compra = excluded.preco_compra, " +
+            "preco_venda = excluded.preco_venda, " +
+            "ativo = excluded.ativo, " +
+            "data_atualizacao = excluded.data_atualizacao, " +
+            "versao = produto.versao + 1",
+            nativeQuery = true)
+    int importarLote(@Param("codigos") String[] codigos,
+                     @Param("nomes") String[] nomes,
+                     @Param("descricoes") String[] descricoes,
+                     @Param("categoriaIds") Long[] categoriaIds,
+                     @Param("precosCompra") BigDecimal[] precosCompra,
+                     @Param("precosVenda") BigDecimal[] precosVenda,
+                     @Param("quantidades") Integer[] quantidades,
+                     @Param("ativos") Boolean[] ativos,
+                     @Param("agora") LocalDateTime agora);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Produto p set p.quantidadeEstoque = p.quantidadeEstoque + :quantidade, p.dataAtualizacao = :agora, " +
+            "p.versao = p.versao + 1 " +
+            "where p.id = :id")
+    int adicionarEstoque(@Param("id") Long id,
+                         @Param("quantidade") Integer quantidade,
+                         @Param("agora") LocalDateTime agora);
 }
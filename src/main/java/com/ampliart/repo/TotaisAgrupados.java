@@ -0,0 +1,10 @@
+package com.ampliart.repo;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface TotaisAgrupados {
+    LocalDate getInicio();
+    BigDecimal getReceita();
+    BigDecimal getGasto();
+}
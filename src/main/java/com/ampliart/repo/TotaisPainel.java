@@ -0,0 +1,14 @@
+package com.ampliart.repo;
+
+import java.math.BigDecimal;
+
+public interface TotaisPainel {
+    BigDecimal getReceitaHoje();
+    BigDecimal getGastoHoje();
+    BigDecimal getReceitaSemana();
+    BigDecimal getGastoSemana();
+    BigDecimal getReceitaMes();
+    BigDecimal getGastoMes();
+    BigDecimal getReceitaAno();
+    BigDecimal getGastoAno();
+}
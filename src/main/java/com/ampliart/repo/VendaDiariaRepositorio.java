@@ -0,0 +1,79 @@
+package com.ampliart.repo;
+
+import com.ampliart.dominio.VendaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VendaDiariaRepositorio extends JpaRepository<VendaDiaria, LocalDate> {
+
+    @Query(value = "select cast(date_trunc(:unidade, cast(v.dia as timestamp)) as date) as inicio, " +
+            "sum(v.receita) as receita, sum(v.gasto) as gasto " +
+            "from ampliart.venda_diaria v " +
+            "where v.dia >= :inicio and v.dia < :fim " +
+            "group by 1 order by 1",
+            nativeQuery = true)
+    List<TotaisAgrupados> somarAgrupado(@Param("unidade") String unidade,
+                                        @Param("inicio") LocalDate inicio,
+                                        @Param("fim") LocalDate fim);
+
+    @Query(value = "select " +
+            "coalesce(sum(v.receita) filter (where v.dia = :hoje), 0) as \"receitaHoje\", " +
+            "coalesce(sum(v.gasto) filter (where v.dia = :hoje), 0) as \"gastoHoje\", " +
+            "coalesce(sum(v.receita) filter (where v.dia >= :inicioSemana and v.dia < :fimSemana), 0) as \"receitaSemana\", " +
+            "coalesce(sum(v.gasto) filter (where v.dia >= :inicioSemana and v.dia < :fimSemana), 0) as \"gastoSemana\", " +
+            "coalesce(sum(v.receita) filter (where v.dia >= :inicioMes and v.dia < :fimMes), 0) as \"receitaMes\", " +
+            "coalesce(sum(v.gasto) filter (where v.dia >= :inicioMes and v.dia < :fimMes), 0) as \"gastoMes\", " +
+            "coalesce(sum(v.receita) filter (where v.dia >= :inicioAno and v.dia < :fimAno), 0) as \"receitaAno\", " +
+            "coalesce(sum(v.gasto) filter (where v.dia >= :inicioAno and v.dia < :fimAno), 0) as \"gastoAno\" " +
+            "from ampliart.venda_diaria v " +
+            "where v.dia >= least(cast(:inicioSemana as date), cast(:inicioAno as date)) " +
+            "and v.dia < greatest(cast(:fimSemana as date), cast(:fimAno as date))",
+            nativeQuery = true)
+    TotaisPainel somarPainel(@Param("hoje") LocalDate hoje,
+                             @Param("inicioSemana") LocalDate inicioSemana,
+                             @Param("fimSemana") LocalDate fimSemana,
+                             @Param("inicioMes") LocalDate inicioMes,
+                             @Param("fimMes") LocalDate fimMes,
+                             @Param("inicioAno") LocalDate inicioAno,
+                             @Param("fimAno") LocalDate fimAno);
+
+    @Modifying
+    @Query(value = "insert into ampliart.venda_diaria as v (dia, receita, gasto, lucro, quantidade_vendas, quantidade_itens) " +
+            "values (:dia, :receita, :gasto, :receita - :gasto, 1, :itens) " +
+            "on conflict (dia) do update set " +
+            "receita = v.receita + excluded.receita, " +
+            "gasto = v.gasto + excluded.gasto, " +
+            "lucro = v.lucro + excluded.lucro, " +
+            "quantidade_vendas = v.quantidade_vendas + excluded.quantidade_vendas, " +
+            "quantidade_itens = v.quantidade_itens + excluded.quantidade_itens",
+            nativeQuery = true)
+    void acumularVenda(@Param("dia") LocalDate dia,
+                       @Param("receita") BigDecimal receita,
+                       @Param("gasto") BigDecimal gasto,
+                       @Param("itens") Integer itens);
+
+    @Modifying
+    @Query(value = "delete from ampliart.venda_diaria", nativeQuery = true)
+    void limpar();
+
+    @Modifying
+    @Query(value = "insert into ampliart.venda_diaria (dia, receita, gasto, lucro, quantidade_vendas, quantidade_itens) " +
+            "select v.dia, v.receita, coalesce(c.gasto, 0), v.receita - coalesce(c.gasto, 0), v.quantidade_vendas, coalesce(c.quantidade_itens, 0) " +
+            "from (select cast(o.data_conclusao as date) as dia, sum(o.total_final) as receita, count(*) as quantidade_vendas " +
+            "      from ampliart.orcamento o " +
+            "      where o.status = 'venda_concluida' and o.data_conclusao is not null " +
+            "      group by cast(o.data_conclusao as date)) v " +
+            "left join (select cast(o.data_conclusao as date) as dia, sum(i.custo_unitario * i.quantidade) as gasto, sum(i.quantidade) as quantidade_itens " +
+            "      from ampliart.orcamento_item i " +
+            "      join ampliart.orcamento o on o.id = i.orcamento_id " +
+            "      where o.status = 'venda_concluida' and o.data_conclusao is not null " +
+            "      group by cast(o.data_conclusao as date)) c on c.dia = v.dia",
+            nativeQuery = true)
+    int reconstruir();
+}
@@ -0,0 +1,9 @@
+package com.ampliart.repo;
+
+import java.time.LocalDateTime;
+
+public interface VersaoOrcamento {
+    Long getVersao();
+    LocalDateTime getDataAtualizacao();
+    LocalDateTime getProdutosAtualizados();
+}
@@ -0,0 +1,8 @@
+package com.ampliart.servico;
+
+public class ConflitoEdicaoException extends IllegalStateException {
+
+    public ConflitoEdicaoException(Throwable causa) {
+        super("O registro foi alterado por outra operacao, recarregue a pagina e tente novamente", causa);
+    }
+}
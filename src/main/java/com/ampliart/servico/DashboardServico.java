@@ -1,19 +1,20 @@
 package com.ampliart.servico;
 
-import com.ampliart.dominio.Orcamento;
-import com.ampliart.dominio.OrcamentoItem;
-import com.ampliart.dominio.StatusOrcamento;
-import com.ampliart.repo.OrcamentoItemRepositorio;
-import com.ampliart.repo.OrcamentoRepositorio;
+import com.ampliart.dominio.AgrupamentoPeriodo;
+import com.ampliart.dominio.Dinheiro;
+import com.ampliart.repo.TotaisAgrupados;
+import com.ampliart.repo.TotaisPainel;
+import com.ampliart.repo.VendaDiariaRepositorio;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class DashboardServico {
@@ -48,64 +49,152 @@ public class DashboardServico {
         }
     }
 
-    private final OrcamentoRepositorio orcamentoRepositorio;
-    private final OrcamentoItemRepositorio orcamentoItemRepositorio;
+    public static class Painel {
+        private final IndicadorPeriodo hoje;
+        private final IndicadorPeriodo semana;
+        private final IndicadorPeriodo mes;
+        private final IndicadorPeriodo ano;
+
+        public Painel(IndicadorPeriodo hoje, IndicadorPeriodo semana, IndicadorPeriodo mes, IndicadorPeriodo ano) {
+            this.hoje = hoje;
+            this.semana = semana;
+            this.mes = mes;
+            this.ano = ano;
+        }
 
-    public DashboardServico(OrcamentoRepositorio orcamentoRepositorio,
-                            OrcamentoItemRepositorio orcamentoItemRepositorio) {
-        this.orcamentoRepositorio = orcamentoRepositorio;
-        this.orcamentoItemRepositorio = orcamentoItemRepositorio;
-    }
+        public IndicadorPeriodo getHoje() {
+            return hoje;
+        }
 
-    public IndicadorPeriodo carregarHoje() {
-        LocalDate hoje = LocalDate.now();
-        return calcularPeriodo("Hoje", hoje.atStartOfDay(), hoje.plusDays(1).atStartOfDay());
+        public IndicadorPeriodo getSemana() {
+            return semana;
+        }
+
+        public IndicadorPeriodo getMes() {
+            return mes;
+        }
+
+        public IndicadorPeriodo getAno() {
+            return ano;
+        }
     }
 
-    public IndicadorPeriodo carregarSemana() {
-        LocalDate hoje = LocalDate.now();
-        LocalDate inicio = hoje.with(DayOfWeek.MONDAY);
-        LocalDate fim = inicio.plusDays(7);
-        return calcularPeriodo("Semana", inicio.atStartOfDay(), fim.atStartOfDay());
+    private static final int LIMITE_DIAS = 366;
+    private static final int LIMITE_SEMANAS = 260;
+    private static final int LIMITE_MESES = 120;
+
+    private final VendaDiariaRepositorio vendaDiariaRepositorio;
+    private final IndicadoresCache indicadoresCache;
+
+    public DashboardServico(VendaDiariaRepositorio vendaDiariaRepositorio,
+                            IndicadoresCache indicadoresCache) {
+        this.vendaDiariaRepositorio = vendaDiariaRepositorio;
+        this.indicadoresCache = indicadoresCache;
     }
 
-    public IndicadorPeriodo carregarMes() {
+    @Timed("ampliart.servico")
+    public Painel carregarPainel() {
         LocalDate hoje = LocalDate.now();
-        LocalDate inicio = hoje.withDayOfMonth(1);
-        LocalDate fim = inicio.plusMonths(1);
-        return calcularPeriodo("Mes", inicio.atStartOfDay(), fim.atStartOfDay());
+        return indicadoresCache.obter("painel:" + hoje, false, () -> calcularPainel(hoje));
     }
 
-    public IndicadorPeriodo carregarAno() {
-        LocalDate hoje = LocalDate.now();
-        LocalDate inicio = hoje.withDayOfYear(1);
-        LocalDate fim = inicio.plusYears(1);
-        return calcularPeriodo("Ano", inicio.atStartOfDay(), fim.atStartOfDay());
+    private Painel calcularPainel(LocalDate hoje) {
+        LocalDate inicioSemana = hoje.with(DayOfWeek.MONDAY);
+        LocalDate inicioMes = hoje.withDayOfMonth(1);
+        LocalDate inicioAno = hoje.withDayOfYear(1);
+        TotaisPainel totais = vendaDiariaRepositorio.somarPainel(hoje,
+                inicioSemana, inicioSemana.plusDays(7),
+                inicioMes, inicioMes.plusMonths(1),
+                inicioAno, inicioAno.plusYears(1));
+        return new Painel(
+                criarIndicador("Hoje", totais.getReceitaHoje(), totais.getGastoHoje()),
+                criarIndicador("Semana", totais.getReceitaSemana(), totais.getGastoSemana()),
+                criarIndicador("Mes", totais.getReceitaMes(), totais.getGastoMes()),
+                criarIndicador("Ano", totais.getReceitaAno(), totais.getGastoAno()));
     }
 
+    @Timed("ampliart.servico")
     public List<IndicadorPeriodo> carregarUltimosDias(int dias) {
-        List<IndicadorPeriodo> lista = new ArrayList<>();
-        for (int i = dias - 1; i >= 0; i--) {
-            LocalDate dia = LocalDate.now().minusDays(i);
-            lista.add(calcularPeriodo(dia.toString(), dia.atStartOfDay(), dia.plusDays(1).atStartOfDay()));
+        LocalDate amanha = LocalDate.now().plusDays(1);
+        return carregarSerie(amanha.minusDays(dias), amanha, AgrupamentoPeriodo.dia);
+    }
+
+    @Timed("ampliart.servico")
+    public List<IndicadorPeriodo> carregarSerie(LocalDate inicio, LocalDate fim, AgrupamentoPeriodo agrupamento) {
+        if (inicio == null || fim == null || !fim.isAfter(inicio)) {
+            throw new IllegalArgumentException("Periodo invalido");
         }
-        return lista;
+        AgrupamentoPeriodo unidade = agrupamento == null ? AgrupamentoPeriodo.dia : agrupamento;
+        int limite = limiteBuckets(unidade);
+        if (fim.isAfter(avancar(truncar(inicio, unidade), unidade, limite))) {
+            throw new IllegalArgumentException("Periodo excede o limite de " + limite + " intervalos por " + unidade);
+        }
+        String chave = "serie:" + inicio + ":" + fim + ":" + unidade;
+        return indicadoresCache.obter(chave, periodoFechado(fim), () -> calcularSerie(inicio, fim, unidade));
+    }
+
+    private List<IndicadorPeriodo> calcularSerie(LocalDate inicio, LocalDate fim, AgrupamentoPeriodo agrupamento) {
+        Map<LocalDate, TotaisAgrupados> porInicio = new HashMap<>();
+        for (TotaisAgrupados totais : vendaDiariaRepositorio.somarAgrupado(unidadeSql(agrupamento), inicio, fim)) {
+            porInicio.put(totais.getInicio(), totais);
+        }
+
+        List<IndicadorPeriodo> serie = new ArrayList<>();
+        for (LocalDate bucket = truncar(inicio, agrupamento); bucket.isBefore(fim); bucket = avancar(bucket, agrupamento)) {
+            TotaisAgrupados totais = porInicio.get(bucket);
+            if (totais == null) {
+                serie.add(criarIndicador(bucket.toString(), BigDecimal.ZERO, BigDecimal.ZERO));
+            } else {
+                serie.add(criarIndicador(bucket.toString(), totais.getReceita(), totais.getGasto()));
+            }
+        }
+        return List.copyOf(serie);
+    }
+
+    private boolean periodoFechado(LocalDate fim) {
+        return !fim.isAfter(LocalDate.now());
+    }
+
+    private IndicadorPeriodo criarIndicador(String titulo, BigDecimal receitaTotal, BigDecimal gastoTotal) {
+        Dinheiro receita = Dinheiro.de(receitaTotal);
+        Dinheiro gasto = Dinheiro.de(gastoTotal);
+        return new IndicadorPeriodo(titulo, receita.paraBigDecimal(), gasto.paraBigDecimal(),
+                receita.subtrair(gasto).paraBigDecimal());
+    }
+
+    private String unidadeSql(AgrupamentoPeriodo agrupamento) {
+        return switch (agrupamento) {
+            case dia -> "day";
+            case semana -> "week";
+            case mes -> "month";
+        };
+    }
+
+    private LocalDate truncar(LocalDate data, AgrupamentoPeriodo agrupamento) {
+        return switch (agrupamento) {
+            case dia -> data;
+            case semana -> data.with(DayOfWeek.MONDAY);
+            case mes -> data.withDayOfMonth(1);
+        };
+    }
+
+    private LocalDate avancar(LocalDate data, AgrupamentoPeriodo agrupamento) {
+        return avancar(data, agrupamento, 1);
+    }
+
+    private LocalDate avancar(LocalDate data, AgrupamentoPeriodo agrupamento, int quantidade) {
+        return switch (agrupamento) {
+            case dia -> data.plusDays(quantidade);
+            case semana -> data.plusWeeks(quantidade);
+            case mes -> data.plusMonths(quantidade);
+        };
     }
 
-    private IndicadorPeriodo calcularPeriodo(String titulo, LocalDateTime inicio, LocalDateTime fim) {
-        List<Orcamento> orcamentos = orcamentoRepositorio.buscarConcluidosPeriodo(StatusOrcamento.venda_concluida, inicio, fim);
-        BigDecimal receita = orcamentos.stream()
-                .map(Orcamento::getTotalFinal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
-
-        List<OrcamentoItem> itens = orcamentoItemRepositorio.buscarItensConcluidosPeriodo(inicio, fim);
-        BigDecimal gasto = itens.stream()
-                .map(i -> i.getProduto().getPrecoCompra().multiply(new BigDecimal(i.getQuantidade())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal lucro = receita.subtract(gasto).setScale(2, RoundingMode.HALF_UP);
-        return new IndicadorPeriodo(titulo, receita, gasto, lucro);
+    private int limiteBuckets(AgrupamentoPeriodo agrupamento) {
+        return switch (agrupamento) {
+            case dia -> LIMITE_DIAS;
+            case semana -> LIMITE_SEMANAS;
+            case mes -> LIMITE_MESES;
+        };
     }
 }
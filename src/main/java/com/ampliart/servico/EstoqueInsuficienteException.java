@@ -0,0 +1,21 @@
+package com.ampliart.servico;
+
+public class EstoqueInsuficienteException extends IllegalStateException {
+
+    private final Long produtoId;
+    private final String produtoNome;
+
+    public EstoqueInsuficienteException(Long produtoId, String produtoNome) {
+        super("Estoque insuficiente para o produto " + produtoNome);
+        this.produtoId = produtoId;
+        this.produtoNome = produtoNome;
+    }
+
+    public Long getProdutoId() {
+        return produtoId;
+    }
+
+    public String getProdutoNome() {
+        return produtoNome;
+    }
+}
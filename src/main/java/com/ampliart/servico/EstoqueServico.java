@@ -3,16 +3,110 @@ package com.ampliart.servico;
 import com.ampliart.dominio.MovimentacaoEstoque;
 import com.ampliart.dominio.Produto;
 import com.ampliart.dominio.TipoMovimentacaoEstoque;
+import com.ampliart.repo.AjusteContagem;
 import com.ampliart.repo.MovimentacaoEstoqueRepositorio;
+import com.ampliart.repo.MovimentacaoLinha;
+import com.ampliart.repo.ProdutoCodigo;
 import com.ampliart.repo.ProdutoRepositorio;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class EstoqueServico {
 
+    public static class LinhaMovimentacao {
+        private String codigo;
+        private TipoMovimentacaoEstoque tipo;
+        private Integer quantidade;
+        private String motivo;
+
+        public LinhaMovimentacao() {
+        }
+
+        public LinhaMovimentacao(String codigo, TipoMovimentacaoEstoque tipo, Integer quantidade, String motivo) {
+            this.codigo = codigo;
+            this.tipo = tipo;
+            this.quantidade = quantidade;
+            this.motivo = motivo;
+        }
+
+        public String getCodigo() {
+            return codigo;
+        }
+
+        public void setCodigo(String codigo) {
+            this.codigo = codigo;
+        }
+
+        public TipoMovimentacaoEstoque getTipo() {
+            return tipo;
+        }
+
+        public void setTipo(TipoMovimentacaoEstoque tipo) {
+            this.tipo = tipo;
+        }
+
+        public Integer getQuantidade() {
+            return quantidade;
+        }
+
+        public void setQuantidade(Integer quantidade) {
+            this.quantidade = quantidade;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+
+        public void setMotivo(String motivo) {
+            this.motivo = motivo;
+        }
+    }
+
+    public static class LinhaContagem {
+        private String codigo;
+        private Integer quantidade;
+
+        public LinhaContagem() {
+        }
+
+        public LinhaContagem(String codigo, Integer quantidade) {
+            this.codigo = codigo;
+            this.quantidade = quantidade;
+        }
+
+        public String getCodigo() {
+            return codigo;
+        }
+
+        public void setCodigo(String codigo) {
+            this.codigo = codigo;
+        }
+
+        public Integer getQuantidade() {
+            return quantidade;
+        }
+
+        public void setQuantidade(Integer quantidade) {
+            this.quantidade = quantidade;
+        }
+    }
+
+    private static final int TAMANHO_MAXIMO_PAGINA = 200;
+
     private final ProdutoRepositorio produtoRepositorio;
     private final MovimentacaoEstoqueRepositorio movimentacaoEstoqueRepositorio;
 
@@ -22,11 +116,29 @@ public class EstoqueServico {
         this.movimentacaoEstoqueRepositorio = movimentacaoEstoqueRepositorio;
     }
 
-    public List<MovimentacaoEstoque> listarMovimentacoes() {
-        return movimentacaoEstoqueRepositorio.findAll();
+    @Timed("ampliart.servico")
+    public Janela<MovimentacaoLinha> listarMovimentacoes(Long produtoId,
+                                                         TipoMovimentacaoEstoque tipo,
+                                                         LocalDate dataInicio,
+                                                         LocalDate dataFim,
+                                                         LocalDateTime depoisData,
+                                                         Long depoisId,
+                                                         int tamanho) {
+        int limite = Math.clamp(tamanho, 1, TAMANHO_MAXIMO_PAGINA);
+        if (depoisData == null || depoisId == null) {
+            depoisData = null;
+            depoisId = null;
+        }
+        List<MovimentacaoLinha> linhas = movimentacaoEstoqueRepositorio.buscarPagina(produtoId, tipo,
+                dataInicio != null ? dataInicio.atStartOfDay() : null,
+                dataFim != null ? dataFim.plusDays(1).atStartOfDay() : null,
+                depoisData, depoisId,
+                limite + 1);
+        return Janela.de(linhas, limite);
     }
 
     @Transactional
+    @Timed("ampliart.servico")
     public MovimentacaoEstoque registrarMovimentacao(Long produtoId,
                                                      TipoMovimentacaoEstoque tipo,
                                                      Integer quantidade,
@@ -37,26 +149,217 @@ public class EstoqueServico {
         if (motivo == null || motivo.isBlank()) {
             throw new IllegalArgumentException("Motivo obrigatorio");
         }
-        Produto produto = produtoRepositorio.findById(produtoId)
-                .orElseThrow(() -> new IllegalArgumentException("Produto nao encontrado"));
-
-        int novoSaldo = produto.getQuantidadeEstoque();
-        if (tipo == TipoMovimentacaoEstoque.entrada) {
-            novoSaldo += quantidade;
-        } else {
-            novoSaldo -= quantidade;
-            if (novoSaldo < 0) {
-                throw new IllegalStateException("Estoque insuficiente para o produto " + produto.getNome());
-            }
+        LocalDateTime agora = LocalDateTime.now();
+        int atualizados = tipo == TipoMovimentacaoEstoque.entrada
+                ? produtoRepositorio.adicionarEstoque(produtoId, quantidade, agora)
+                : produtoRepositorio.baixarEstoque(produtoId, quantidade, agora);
+        if (atualizados == 0) {
+            Produto produto = produtoRepositorio.findById(produtoId)
+                    .orElseThrow(() -> new IllegalArgumentException("Produto nao encontrado"));
+            throw new EstoqueInsuficienteException(produto.getId(), produto.getNome());
         }
-        produto.setQuantidadeEstoque(novoSaldo);
-        produtoRepositorio.save(produto);
 
         MovimentacaoEstoque mov = new MovimentacaoEstoque();
-        mov.setProduto(produto);
+        mov.setProduto(produtoRepositorio.getReferenceById(produtoId));
         mov.setTipo(tipo);
         mov.setQuantidade(quantidade);
         mov.setMotivo(motivo);
         return movimentacaoEstoqueRepositorio.save(mov);
     }
+
+    @Transactional
+    @Timed("ampliart.servico")
+    public int registrarLote(List<LinhaMovimentacao> linhas) {
+        if (linhas == null || linhas.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma movimentacao informada");
+        }
+        for (int i = 0; i < linhas.size(); i++) {
+            LinhaMovimentacao linha = linhas.get(i);
+            if (linha.getCodigo() == null || linha.getCodigo().isBlank()) {
+                throw new IllegalArgumentException("Linha " + (i + 1) + ": codigo obrigatorio");
+            }
+            if (linha.getTipo() == null) {
+                throw new IllegalArgumentException("Linha " + (i + 1) + ": tipo obrigatorio");
+            }
+            if (linha.getQuantidade() == null || linha.getQuantidade() < 1) {
+                throw new IllegalArgumentException("Linha " + (i + 1) + ": quantidade invalida");
+            }
+            if (linha.getMotivo() == null || linha.getMotivo().isBlank()) {
+                throw new IllegalArgumentException("Linha " + (i + 1) + ": motivo obrigatorio");
+            }
+        }
+        Map<String, ProdutoCodigo> produtos = resolverCodigos(linhas.stream().map(LinhaMovimentacao::getCodigo).toList());
+
+        int tamanho = linhas.size();
+        Long[] ids = new Long[tamanho];
+        String[] tipos = new String[tamanho];
+        Integer[] quantidades = new Integer[tamanho];
+        String[] motivos = new String[tamanho];
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (int i = 0; i < tamanho; i++) {
+            LinhaMovimentacao linha = linhas.get(i);
+            Long produtoId = produtos.get(linha.getCodigo()).getId();
+            int delta = linha.getTipo() == TipoMovimentacaoEstoque.entrada ? linha.getQuantidade() : -linha.getQuantidade();
+            deltas.merge(produtoId, delta, Integer::sum);
+            ids[i] = produtoId;
+            tipos[i] = linha.getTipo().name();
+            quantidades[i] = linha.getQuantidade();
+            motivos[i] = linha.getMotivo();
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        Long[] produtoIds = deltas.keySet().toArray(new Long[0]);
+        List<Long> ajustados = produtoRepositorio.ajustarEstoqueEmLote(produtoIds,
+                deltas.values().toArray(new Integer[0]), agora);
+        if (ajustados.size() != produtoIds.length) {
+            Set<Long> atualizados = new HashSet<>(ajustados);
+            for (ProdutoCodigo produto : produtos.values()) {
+                if (!atualizados.contains(produto.getId())) {
+                    throw new EstoqueInsuficienteException(produto.getId(), produto.getNome());
+                }
+            }
+        }
+        movimentacaoEstoqueRepositorio.registrarLinhasEmLote(ids, tipos, quantidades, motivos, agora);
+        return tamanho;
+    }
+
+    @Transactional
+    @Timed("ampliart.servico")
+    public int registrarContagem(List<LinhaContagem> linhas, String motivo) {
+        if (linhas == null || linhas.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma contagem informada");
+        }
+        if (motivo == null || motivo.isBlank()) {
+            throw new IllegalArgumentException("Motivo obrigatorio");
+        }
+        for (int i = 0; i < linhas.size(); i++) {
+            LinhaContagem linha = linhas.get(i);
+            if (linha.getCodigo() == null || linha.getCodigo().isBlank()) {
+                throw new IllegalArgumentException("Linha " + (i + 1) + ": codigo obrigatorio");
+            }
+            if (linha.getQuantidade() == null || linha.getQuantidade() < 0) {
+                throw new IllegalArgumentException("Linha " + (i + 1) + ": quantidade invalida");
+            }
+        }
+        Map<String, ProdutoCodigo> produtos = resolverCodigos(linhas.stream().map(LinhaContagem::getCodigo).toList());
+
+        Map<Long, Integer> contados = new TreeMap<>();
+        for (LinhaContagem linha : linhas) {
+            if (contados.put(produtos.get(linha.getCodigo()).getId(), linha.getQuantidade()) != null) {
+                throw new IllegalArgumentException("Codigo repetido na contagem: " + linha.getCodigo());
+            }
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        List<AjusteContagem> ajustes = produtoRepositorio.contarEstoqueEmLote(contados.keySet().toArray(new Long[0]),
+                contados.values().toArray(new Integer[0]), agora);
+        List<AjusteContagem> diferencas = ajustes.stream()
+                .filter(ajuste -> !ajuste.getAnterior().equals(ajuste.getContado()))
+                .toList();
+        if (!diferencas.isEmpty()) {
+            int tamanho = diferencas.size();
+            Long[] ids = new Long[tamanho];
+            String[] tipos = new String[tamanho];
+            Integer[] quantidades = new Integer[tamanho];
+            String[] motivos = new String[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                AjusteContagem ajuste = diferencas.get(i);
+                int diferenca = ajuste.getContado() - ajuste.getAnterior();
+                ids[i] = ajuste.getId();
+                tipos[i] = (diferenca > 0 ? TipoMovimentacaoEstoque.entrada : TipoMovimentacaoEstoque.saida).name();
+                quantidades[i] = Math.abs(diferenca);
+                motivos[i] = motivo;
+            }
+            movimentacaoEstoqueRepositorio.registrarLinhasEmLote(ids, tipos, quantidades, motivos, agora);
+        }
+        return diferencas.size();
+    }
+
+    @Timed("ampliart.servico")
+    public List<LinhaMovimentacao> lerMovimentacoesCsv(Reader csv) {
+        LeitorCsv leitor = new LeitorCsv(csv);
+        Map<String, Integer> colunas = lerColunas(leitor, List.of("codigo", "tipo", "quantidade", "motivo"));
+        List<LinhaMovimentacao> linhas = new ArrayList<>();
+        List<String> campos;
+        while ((campos = proximaLinha(leitor)) != null) {
+            int numeroLinha = leitor.getNumeroLinha();
+            TipoMovimentacaoEstoque tipo;
+            try {
+                tipo = TipoMovimentacaoEstoque.valueOf(campo(campos, colunas, "tipo").toLowerCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException ex) {
+                throw new IllegalArgumentException("Linha " + numeroLinha + ": tipo invalido");
+            }
+            linhas.add(new LinhaMovimentacao(campo(campos, colunas, "codigo"), tipo,
+                    inteiro(campo(campos, colunas, "quantidade"), numeroLinha), campo(campos, colunas, "motivo")));
+        }
+        return linhas;
+    }
+
+    @Timed("ampliart.servico")
+    public List<LinhaContagem> lerContagemCsv(Reader csv) {
+        LeitorCsv leitor = new LeitorCsv(csv);
+        Map<String, Integer> colunas = lerColunas(leitor, List.of("codigo", "quantidade"));
+        List<LinhaContagem> linhas = new ArrayList<>();
+        List<String> campos;
+        while ((campos = proximaLinha(leitor)) != null) {
+            linhas.add(new LinhaContagem(campo(campos, colunas, "codigo"),
+                    inteiro(campo(campos, colunas, "quantidade"), leitor.getNumeroLinha())));
+        }
+        return linhas;
+    }
+
+    private List<String> proximaLinha(LeitorCsv leitor) {
+        try {
+            return leitor.proximaLinha();
+        } catch (LeitorCsv.RegistroInvalidoException ex) {
+            throw new IllegalArgumentException("Linha " + ex.getNumeroLinha() + ": " + ex.getMessage());
+        }
+    }
+
+    private Map<String, ProdutoCodigo> resolverCodigos(List<String> codigos) {
+        String[] distintos = codigos.stream().distinct().toArray(String[]::new);
+        Map<String, ProdutoCodigo> produtos = new HashMap<>();
+        for (ProdutoCodigo produto : produtoRepositorio.buscarPorCodigos(distintos)) {
+            produtos.put(produto.getCodigo(), produto);
+        }
+        for (String codigo : distintos) {
+            if (!produtos.containsKey(codigo)) {
+                throw new IllegalArgumentException("Produto nao encontrado para o codigo " + codigo);
+            }
+        }
+        return produtos;
+    }
+
+    private Map<String, Integer> lerColunas(LeitorCsv leitor, List<String> obrigatorias) {
+        List<String> cabecalho = leitor.lerCabecalho();
+        if (cabecalho == null) {
+            throw new IllegalArgumentException("Arquivo vazio");
+        }
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < cabecalho.size(); i++) {
+            colunas.put(cabecalho.get(i).toLowerCase(Locale.ROOT), i);
+        }
+        for (String obrigatoria : obrigatorias) {
+            if (!colunas.containsKey(obrigatoria)) {
+                throw new IllegalArgumentException("Coluna obrigatoria ausente: " + obrigatoria);
+            }
+        }
+        return colunas;
+    }
+
+    private String campo(List<String> campos, Map<String, Integer> colunas, String nome) {
+        Integer indice = colunas.get(nome);
+        if (indice == null || indice >= campos.size() || campos.get(indice).isBlank()) {
+            return null;
+        }
+        return campos.get(indice);
+    }
+
+    private Integer inteiro(String valor, int numeroLinha) {
+        try {
+            return Integer.valueOf(valor.trim());
+        } catch (NumberFormatException | NullPointerException ex) {
+            throw new IllegalArgumentException("Linha " + numeroLinha + ": quantidade invalida");
+        }
+    }
 }
@@ -0,0 +1,159 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.StatusOrcamento;
+import com.ampliart.repo.OrcamentoRepositorio;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Service
+public class ExportacaoOrcamentoServico {
+
+    private static final int EM_ANDAMENTO = 2;
+    private static final int EXPORTACOES_SIMULTANEAS = 2;
+    private static final int TENTAR_NOVAMENTE_SEGUNDOS = 30;
+    private static final int TAMANHO_LOTE_IDS = 500;
+    private static final long ESPERA_INICIAL_MS = 50;
+    private static final long ESPERA_MAXIMA_MS = 1000;
+
+    private record Documento(Long id, Future<byte[]> pdf) {
+    }
+
+    private final OrcamentoRepositorio orcamentoRepositorio;
+    private final OrcamentoPdfServico orcamentoPdfServico;
+    private final Semaphore exportacoes = new Semaphore(EXPORTACOES_SIMULTANEAS);
+
+    public ExportacaoOrcamentoServico(OrcamentoRepositorio orcamentoRepositorio,
+                                      OrcamentoPdfServico orcamentoPdfServico) {
+        this.orcamentoRepositorio = orcamentoRepositorio;
+        this.orcamentoPdfServico = orcamentoPdfServico;
+    }
+
+    @Timed("ampliart.servico")
+    public int exportarZip(StatusOrcamento status, LocalDate dataInicio, LocalDate dataFim, OutputStream destino)
+            throws IOException {
+        if (!exportacoes.tryAcquire()) {
+            throw new FilaSaturadaException(TENTAR_NOVAMENTE_SEGUNDOS);
+        }
+        try {
+            LocalDateTime inicio = null;
+            LocalDateTime fim = null;
+            if (dataInicio != null && dataFim != null) {
+                inicio = dataInicio.atStartOfDay();
+                fim = dataFim.plusDays(1).atStartOfDay();
+            }
+            return exportarZip(new IdsPaginados(status, inicio, fim), destino);
+        } finally {
+            exportacoes.release();
+        }
+    }
+
+    private int exportarZip(Iterator<Long> ids, OutputStream destino) throws IOException {
+        int exportados = 0;
+        ZipOutputStream zip = new ZipOutputStream(destino);
+        Deque<Documento> pendentes = new ArrayDeque<>();
+        Long proximo = null;
+        long espera = ESPERA_INICIAL_MS;
+        try {
+            while (proximo != null || ids.hasNext() || !pendentes.isEmpty()) {
+                while (pendentes.size() < EM_ANDAMENTO && (proximo != null || ids.hasNext())) {
+                    Long id = proximo != null ? proximo : ids.next();
+                    try {
+                        pendentes.add(new Documento(id, orcamentoPdfServico.gerar(id)));
+                        proximo = null;
+                        espera = ESPERA_INICIAL_MS;
+                    } catch (FilaSaturadaException ex) {
+                        proximo = id;
+                        if (!pendentes.isEmpty()) {
+                            break;
+                        }
+                        esperar(espera);
+                        espera = Math.min(espera * 2, ESPERA_MAXIMA_MS);
+                    }
+                }
+                Documento documento = pendentes.poll();
+                byte[] pdf = aguardar(documento.pdf());
+                zip.putNextEntry(new ZipEntry("orcamento-" + documento.id() + ".pdf"));
+                zip.write(pdf);
+                zip.closeEntry();
+                exportados++;
+            }
+        } finally {
+            for (Documento documento : pendentes) {
+                documento.pdf().cancel(true);
+            }
+        }
+        zip.finish();
+        return exportados;
+    }
+
+    private byte[] aguardar(Future<byte[]> pdf) {
+        try {
+            return pdf.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Exportacao interrompida", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Erro ao gerar PDF", ex.getCause());
+        }
+    }
+
+    private void esperar(long milissegundos) {
+        try {
+            Thread.sleep(milissegundos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Exportacao interrompida", ex);
+        }
+    }
+
+    private class IdsPaginados implements Iterator<Long> {
+        private final StatusOrcamento status;
+        private final LocalDateTime inicio;
+        private final LocalDateTime fim;
+        private List<Long> lote = List.of();
+        private int posicao;
+        private Long ultimoId;
+        private boolean esgotado;
+
+        IdsPaginados(StatusOrcamento status, LocalDateTime inicio, LocalDateTime fim) {
+            this.status = status;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (posicao < lote.size()) {
+                return true;
+            }
+            if (esgotado) {
+                return false;
+            }
+            lote = orcamentoRepositorio.buscarIds(status, inicio, fim, ultimoId, TAMANHO_LOTE_IDS);
+            posicao = 0;
+            esgotado = lote.size() < TAMANHO_LOTE_IDS;
+            return !lote.isEmpty();
+        }
+
+        @Override
+        public Long next() {
+            Long id = lote.get(posicao++);
+            ultimoId = id;
+            return id;
+        }
+    }
+}
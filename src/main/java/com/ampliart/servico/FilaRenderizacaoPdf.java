@@ -0,0 +1,137 @@
+package com.ampliart.servico;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class FilaRenderizacaoPdf {
+
+    public static class Estatisticas {
+        private final int emExecucao;
+        private final int emFila;
+        private final long concluidas;
+        private final long rejeitadas;
+        private final long tempoMedioMs;
+        private final long tempoMaximoMs;
+
+        public Estatisticas(int emExecucao, int emFila, long concluidas, long rejeitadas,
+                            long tempoMedioMs, long tempoMaximoMs) {
+            this.emExecucao = emExecucao;
+            this.emFila = emFila;
+            this.concluidas = concluidas;
+            this.rejeitadas = rejeitadas;
+            this.tempoMedioMs = tempoMedioMs;
+            this.tempoMaximoMs = tempoMaximoMs;
+        }
+
+        public int getEmExecucao() {
+            return emExecucao;
+        }
+
+        public int getEmFila() {
+            return emFila;
+        }
+
+        public long getConcluidas() {
+            return concluidas;
+        }
+
+        public long getRejeitadas() {
+            return rejeitadas;
+        }
+
+        public long getTempoMedioMs() {
+            return tempoMedioMs;
+        }
+
+        public long getTempoMaximoMs() {
+            return tempoMaximoMs;
+        }
+    }
+
+    private static final int THREADS = 4;
+    private static final int CAPACIDADE_FILA = 16;
+    private static final int TENTAR_NOVAMENTE_SEGUNDOS = 5;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(CAPACIDADE_FILA),
+            Thread.ofPlatform().name("pdf-", 1).daemon(true).factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+    private final AtomicLong concluidas = new AtomicLong();
+    private final AtomicLong rejeitadas = new AtomicLong();
+    private final AtomicLong tempoTotalNanos = new AtomicLong();
+    private final AtomicLong tempoMaximoNanos = new AtomicLong();
+
+    public <T> T executar(Callable<T> renderizacao) throws IOException {
+        Future<T> tarefa = agendar(renderizacao);
+        try {
+            return tarefa.get();
+        } catch (InterruptedException ex) {
+            tarefa.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Geracao de PDF interrompida", ex);
+        } catch (ExecutionException ex) {
+            Throwable causa = ex.getCause();
+            if (causa instanceof IOException io) {
+                throw io;
+            }
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Erro ao gerar PDF", causa);
+        }
+    }
+
+    public <T> Future<T> agendar(Callable<T> renderizacao) {
+        try {
+            return executor.submit(() -> {
+                long inicio = System.nanoTime();
+                try {
+                    return renderizacao.call();
+                } finally {
+                    registrarTempo(System.nanoTime() - inicio);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejeitadas.incrementAndGet();
+            throw new FilaSaturadaException(TENTAR_NOVAMENTE_SEGUNDOS);
+        }
+    }
+
+    public Estatisticas estatisticas() {
+        long total = concluidas.get();
+        long tempoMedio = total == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(tempoTotalNanos.get() / total);
+        return new Estatisticas(executor.getActiveCount(), executor.getQueue().size(), total, rejeitadas.get(),
+                tempoMedio, TimeUnit.NANOSECONDS.toMillis(tempoMaximoNanos.get()));
+    }
+
+    public long getConcluidas() {
+        return concluidas.get();
+    }
+
+    public long getTempoTotalNanos() {
+        return tempoTotalNanos.get();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    private void registrarTempo(long nanos) {
+        concluidas.incrementAndGet();
+        tempoTotalNanos.addAndGet(nanos);
+        tempoMaximoNanos.accumulateAndGet(nanos, Math::max);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ampliart.servico;
+
+public class FilaSaturadaException extends IllegalStateException {
+
+    private final int tentarNovamenteEmSegundos;
+
+    public FilaSaturadaException(int tentarNovamenteEmSegundos) {
+        super("Muitos PDFs em geracao, tente novamente em instantes");
+        this.tentarNovamenteEmSegundos = tentarNovamenteEmSegundos;
+    }
+
+    public int getTentarNovamenteEmSegundos() {
+        return tentarNovamenteEmSegundos;
+    }
+}
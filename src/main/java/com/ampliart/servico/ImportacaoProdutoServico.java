@@ -0,0 +1,261 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.Categoria;
+import com.ampliart.repo.CategoriaRepositorio;
+import com.ampliart.repo.ProdutoRepositorio;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+public class ImportacaoProdutoServico {
+
+    private static final int TAMANHO_LOTE = 1000;
+    private static final String CATEGORIA_PADRAO = "Sem categoria";
+
+    private static class LinhaProduto {
+        private int linha;
+        private String codigo;
+        private String nome;
+        private String descricao;
+        private Long categoriaId;
+        private BigDecimal precoCompra;
+        private BigDecimal precoVenda;
+        private Integer quantidadeEstoque;
+        private Boolean ativo;
+    }
+
+    private final ProdutoRepositorio produtoRepositorio;
+    private final CategoriaRepositorio categoriaRepositorio;
+    private final ProdutoCodigoCache produtoCodigoCache;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImportacaoProdutoServico(ProdutoRepositorio produtoRepositorio,
+                                    CategoriaRepositorio categoriaRepositorio,
+                                    ProdutoCodigoCache produtoCodigoCache,
+                                    PlatformTransactionManager transactionManager) {
+        this.produtoRepositorio = produtoRepositorio;
+        this.categoriaRepositorio = categoriaRepositorio;
+        this.produtoCodigoCache = produtoCodigoCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public RelatorioImportacao importar(Reader csv) {
+        RelatorioImportacao relatorio = new RelatorioImportacao();
+        LeitorCsv leitor = new LeitorCsv(csv);
+        List<String> cabecalho = leitor.lerCabecalho();
+        if (cabecalho == null) {
+            throw new IllegalArgumentException("Arquivo vazio");
+        }
+        Map<String, Integer> colunas = mapearColunas(cabecalho);
+        Map<String, Long> categorias = new HashMap<>();
+        Map<String, LinhaProduto> lote = new LinkedHashMap<>();
+
+        while (true) {
+            List<String> campos;
+            try {
+                campos = leitor.proximaLinha();
+            } catch (LeitorCsv.RegistroInvalidoException ex) {
+                relatorio.registrarLeitura();
+                relatorio.registrarErro(ex.getNumeroLinha(), null, ex.getMessage());
+                continue;
+            }
+            if (campos == null) {
+                break;
+            }
+            relatorio.registrarLeitura();
+            int numeroLinha = leitor.getNumeroLinha();
+            String codigo = campo(campos, colunas, "codigo");
+            try {
+                LinhaProduto linha = converter(numeroLinha, campos, colunas, categorias);
+                LinhaProduto anterior = lote.put(linha.codigo, linha);
+                if (anterior != null) {
+                    relatorio.registrarErro(anterior.linha, anterior.codigo, "Codigo repetido no arquivo; substituido pela linha " + numeroLinha);
+                }
+            } catch (IllegalArgumentException ex) {
+                relatorio.registrarErro(numeroLinha, codigo, ex.getMessage());
+            }
+            if (lote.size() >= TAMANHO_LOTE) {
+                gravarLote(lote, relatorio);
+            }
+        }
+        gravarLote(lote, relatorio);
+        return relatorio;
+    }
+
+    private void gravarLote(Map<String, LinhaProduto> lote, RelatorioImportacao relatorio) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        List<LinhaProduto> linhas = List.copyOf(lote.values());
+        lote.clear();
+        try {
+            gravar(linhas);
+            relatorio.registrarImportadas(linhas.size());
+        } catch (RuntimeException erroLote) {
+            for (LinhaProduto linha : linhas) {
+                try {
+                    gravar(List.of(linha));
+                    relatorio.registrarImportadas(1);
+                } catch (RuntimeException ex) {
+                    relatorio.registrarErro(linha.linha, linha.codigo, mensagemErro(ex));
+                }
+            }
+        }
+    }
+
+    private void gravar(List<LinhaProduto> linhas) {
+        int tamanho = linhas.size();
+        String[] codigos = new String[tamanho];
+        String[] nomes = new String[tamanho];
+        String[] descricoes = new String[tamanho];
+        Long[] categoriaIds = new Long[tamanho];
+        BigDecimal[] precosCompra = new BigDecimal[tamanho];
+        BigDecimal[] precosVenda = new BigDecimal[tamanho];
+        Integer[] quantidades = new Integer[tamanho];
+        Boolean[] ativos = new Boolean[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            LinhaProduto linha = linhas.get(i);
+            codigos[i] = linha.codigo;
+            nomes[i] = linha.nome;
+            descricoes[i] = linha.descricao;
+            categoriaIds[i] = linha.categoriaId;
+            precosCompra[i] = linha.precoCompra;
+            precosVenda[i] = linha.precoVenda;
+            quantidades[i] = linha.quantidadeEstoque;
+            ativos[i] = linha.ativo;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> produtoRepositorio.importarLote(codigos, nomes, descricoes,
+                categoriaIds, precosCompra, precosVenda, quantidades, ativos, agora));
+        produtoCodigoCache.invalidarTudo();
+    }
+
+    private LinhaProduto converter(int numeroLinha,
+                                   List<String> campos,
+                                   Map<String, Integer> colunas,
+                                   Map<String, Long> categorias) {
+        LinhaProduto linha = new LinhaProduto();
+        linha.linha = numeroLinha;
+        linha.codigo = obrigatorio(campo(campos, colunas, "codigo"), "Codigo obrigatorio");
+        linha.nome = obrigatorio(campo(campos, colunas, "nome"), "Nome obrigatorio");
+        if (linha.codigo.length() > 80) {
+            throw new IllegalArgumentException("Codigo maior que 80 caracteres");
+        }
+        if (linha.nome.length() > 255) {
+            throw new IllegalArgumentException("Nome maior que 255 caracteres");
+        }
+        linha.descricao = campo(campos, colunas, "descricao");
+        linha.precoCompra = decimal(obrigatorio(campo(campos, colunas, "preco_compra"), "Preco de compra obrigatorio"));
+        linha.precoVenda = decimal(obrigatorio(campo(campos, colunas, "preco_venda"), "Preco de venda obrigatorio"));
+        String quantidade = campo(campos, colunas, "quantidade_estoque");
+        linha.quantidadeEstoque = quantidade == null ? 0 : inteiro(quantidade);
+        String ativo = campo(campos, colunas, "ativo");
+        linha.ativo = ativo == null || booleano(ativo);
+        linha.categoriaId = resolverCategoria(campo(campos, colunas, "categoria"), categorias);
+        return linha;
+    }
+
+    private Long resolverCategoria(String nome, Map<String, Long> categorias) {
+        String nomeCategoria = nome == null ? CATEGORIA_PADRAO : nome;
+        if (nomeCategoria.length() > 120) {
+            throw new IllegalArgumentException("Nome de categoria maior que 120 caracteres");
+        }
+        String chave = nomeCategoria.toLowerCase(Locale.ROOT);
+        Long id = categorias.get(chave);
+        if (id == null) {
+            id = transactionTemplate.execute(status -> categoriaRepositorio.findFirstByNomeIgnoreCaseOrderByIdAsc(nomeCategoria)
+                    .orElseGet(() -> {
+                        Categoria categoria = new Categoria();
+                        categoria.setNome(nomeCategoria);
+                        return categoriaRepositorio.save(categoria);
+                    })
+                    .getId());
+            categorias.put(chave, id);
+        }
+        return id;
+    }
+
+    private Map<String, Integer> mapearColunas(List<String> cabecalho) {
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < cabecalho.size(); i++) {
+            colunas.put(cabecalho.get(i).toLowerCase(Locale.ROOT), i);
+        }
+        for (String obrigatoria : List.of("codigo", "nome", "preco_compra", "preco_venda")) {
+            if (!colunas.containsKey(obrigatoria)) {
+                throw new IllegalArgumentException("Coluna obrigatoria ausente: " + obrigatoria);
+            }
+        }
+        return colunas;
+    }
+
+    private String campo(List<String> campos, Map<String, Integer> colunas, String nome) {
+        Integer indice = colunas.get(nome);
+        if (indice == null || indice >= campos.size()) {
+            return null;
+        }
+        String valor = campos.get(indice);
+        return valor.isBlank() ? null : valor;
+    }
+
+    private String obrigatorio(String valor, String mensagem) {
+        if (valor == null) {
+            throw new IllegalArgumentException(mensagem);
+        }
+        return valor;
+    }
+
+    private BigDecimal decimal(String valor) {
+        String normalizado = valor.replace("R$", "").trim();
+        if (normalizado.contains(",")) {
+            normalizado = normalizado.replace(".", "").replace(',', '.');
+        }
+        try {
+            BigDecimal numero = new BigDecimal(normalizado).setScale(2, RoundingMode.HALF_UP);
+            if (numero.signum() < 0) {
+                throw new IllegalArgumentException("Valor negativo: " + valor);
+            }
+            return numero;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Valor invalido: " + valor);
+        }
+    }
+
+    private Integer inteiro(String valor) {
+        try {
+            int numero = Integer.parseInt(valor.trim());
+            if (numero < 0) {
+                throw new IllegalArgumentException("Quantidade negativa: " + valor);
+            }
+            return numero;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Quantidade invalida: " + valor);
+        }
+    }
+
+    private boolean booleano(String valor) {
+        return switch (valor.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "sim", "s", "1", "ativo" -> true;
+            case "false", "nao", "n", "0", "inativo" -> false;
+            default -> throw new IllegalArgumentException("Valor de ativo invalido: " + valor);
+        };
+    }
+
+    private String mensagemErro(RuntimeException ex) {
+        Throwable causa = ex;
+        while (causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        return causa.getMessage() != null ? causa.getMessage() : ex.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,147 @@
+package com.ampliart.servico;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class IndicadoresCache {
+
+    public static class Estatisticas {
+        private final long acertos;
+        private final long falhas;
+        private final int entradasAbertas;
+        private final int entradasFechadas;
+
+        public Estatisticas(long acertos, long falhas, int entradasAbertas, int entradasFechadas) {
+            this.acertos = acertos;
+            this.falhas = falhas;
+            this.entradasAbertas = entradasAbertas;
+            this.entradasFechadas = entradasFechadas;
+        }
+
+        public long getAcertos() {
+            return acertos;
+        }
+
+        public long getFalhas() {
+            return falhas;
+        }
+
+        public int getEntradasAbertas() {
+            return entradasAbertas;
+        }
+
+        public int getEntradasFechadas() {
+            return entradasFechadas;
+        }
+    }
+
+    private static final int LIMITE_ABERTOS = 256;
+    private static final int LIMITE_PESO_FECHADOS = 50_000;
+
+    private final Object trava = new Object();
+    private final Map<String, Object> abertos = new HashMap<>();
+    private final LinkedHashMap<String, Object> fechados = new LinkedHashMap<>(64, 0.75f, true);
+    private long pesoFechados;
+    private long geracao;
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public <T> T obter(String chave, boolean fechado, Supplier<T> calculo) {
+        Object valor;
+        long geracaoInicial;
+        synchronized (trava) {
+            valor = fechado ? fechados.get(chave) : abertos.get(chave);
+            geracaoInicial = geracao;
+        }
+        if (valor != null) {
+            acertos.incrementAndGet();
+            return (T) valor;
+        }
+        falhas.incrementAndGet();
+        T calculado = calculo.get();
+        synchronized (trava) {
+            if (geracao == geracaoInicial) {
+                if (fechado) {
+                    guardarFechado(chave, calculado);
+                } else {
+                    if (abertos.size() >= LIMITE_ABERTOS) {
+                        abertos.clear();
+                    }
+                    abertos.put(chave, calculado);
+                }
+            }
+        }
+        return calculado;
+    }
+
+    public void invalidarAbertos() {
+        executarAposCommit(() -> {
+            synchronized (trava) {
+                geracao++;
+                abertos.clear();
+            }
+        });
+    }
+
+    public void invalidarTudo() {
+        executarAposCommit(() -> {
+            synchronized (trava) {
+                geracao++;
+                abertos.clear();
+                fechados.clear();
+                pesoFechados = 0;
+            }
+        });
+    }
+
+    public Estatisticas estatisticas() {
+        synchronized (trava) {
+            return new Estatisticas(acertos.get(), falhas.get(), abertos.size(), fechados.size());
+        }
+    }
+
+    private void guardarFechado(String chave, Object valor) {
+        int peso = peso(valor);
+        if (peso > LIMITE_PESO_FECHADOS) {
+            return;
+        }
+        Object anterior = fechados.put(chave, valor);
+        if (anterior != null) {
+            pesoFechados -= peso(anterior);
+        }
+        pesoFechados += peso;
+        Iterator<Map.Entry<String, Object>> entradas = fechados.entrySet().iterator();
+        while (pesoFechados > LIMITE_PESO_FECHADOS && entradas.hasNext()) {
+            pesoFechados -= peso(entradas.next().getValue());
+            entradas.remove();
+        }
+    }
+
+    private static int peso(Object valor) {
+        return valor instanceof Collection<?> colecao ? Math.max(1, colecao.size()) : 1;
+    }
+
+    private void executarAposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
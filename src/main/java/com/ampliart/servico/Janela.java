@@ -0,0 +1,32 @@
+package com.ampliart.servico;
+
+import java.util.List;
+
+public class Janela<T> {
+    private final List<T> itens;
+    private final boolean temProxima;
+
+    public Janela(List<T> itens, boolean temProxima) {
+        this.itens = itens;
+        this.temProxima = temProxima;
+    }
+
+    public static <T> Janela<T> de(List<T> linhas, int tamanho) {
+        if (linhas.size() > tamanho) {
+            return new Janela<>(List.copyOf(linhas.subList(0, tamanho)), true);
+        }
+        return new Janela<>(List.copyOf(linhas), false);
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public boolean isTemProxima() {
+        return temProxima;
+    }
+
+    public T getUltimo() {
+        return itens.isEmpty() ? null : itens.get(itens.size() - 1);
+    }
+}
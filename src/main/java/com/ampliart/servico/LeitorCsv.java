@@ -0,0 +1,193 @@
+package com.ampliart.servico;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+public class LeitorCsv {
+
+    public static class RegistroInvalidoException extends IllegalArgumentException {
+
+        private final int numeroLinha;
+
+        public RegistroInvalidoException(int numeroLinha, String mensagem) {
+            super(mensagem);
+            this.numeroLinha = numeroLinha;
+        }
+
+        public int getNumeroLinha() {
+            return numeroLinha;
+        }
+    }
+
+    static final int TAMANHO_MAXIMO_REGISTRO = 64 * 1024;
+
+    private static final String LINHA_DESCARTADA = new String();
+
+    private final BufferedReader leitor;
+    private final Deque<String> pendentes = new ArrayDeque<>();
+    private char separador = ',';
+    private int numeroLinha;
+
+    public LeitorCsv(Reader leitor) {
+        this.leitor = leitor instanceof BufferedReader buffered ? buffered : new BufferedReader(leitor);
+    }
+
+    public List<String> lerCabecalho() {
+        String linha = lerLinha();
+        if (linha == null) {
+            return null;
+        }
+        if (!linha.isEmpty() && linha.charAt(0) == '\uFEFF') {
+            linha = linha.substring(1);
+        }
+        separador = linha.indexOf(';') >= 0 ? ';' : ',';
+        return lerRegistro(linha);
+    }
+
+    public List<String> proximaLinha() {
+        String linha = lerLinha();
+        while (linha != null && linha.isBlank()) {
+            linha = lerLinha();
+        }
+        if (linha == null) {
+            return null;
+        }
+        return lerRegistro(linha);
+    }
+
+    public int getNumeroLinha() {
+        return numeroLinha;
+    }
+
+    private List<String> lerRegistro(String primeiraLinha) {
+        int linhaInicial = numeroLinha;
+        List<String> continuacoes = new ArrayList<>();
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        boolean inicioCampo = true;
+        int tamanho = 0;
+        String linha = primeiraLinha;
+        while (true) {
+            tamanho += linha.length() + 1;
+            if (tamanho > TAMANHO_MAXIMO_REGISTRO) {
+                descartarRegistro(linhaInicial, continuacoes);
+                throw new RegistroInvalidoException(linhaInicial,
+                        "Registro maior que " + TAMANHO_MAXIMO_REGISTRO + " caracteres");
+            }
+            for (int i = 0; i < linha.length(); i++) {
+                char c = linha.charAt(i);
+                if (entreAspas) {
+                    if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreAspas = false;
+                    } else {
+                        campo.append(c);
+                    }
+                } else if (c == separador) {
+                    campos.add(campo.toString().trim());
+                    campo.setLength(0);
+                    inicioCampo = true;
+                } else if (c == '"' && inicioCampo) {
+                    campo.setLength(0);
+                    entreAspas = true;
+                    inicioCampo = false;
+                } else {
+                    campo.append(c);
+                    if (!Character.isWhitespace(c)) {
+                        inicioCampo = false;
+                    }
+                }
+            }
+            if (!entreAspas) {
+                break;
+            }
+            String continuacao;
+            try {
+                continuacao = lerLinha();
+            } catch (RegistroInvalidoException ex) {
+                continuacoes.add(LINHA_DESCARTADA);
+                descartarRegistro(linhaInicial, continuacoes);
+                throw new RegistroInvalidoException(linhaInicial,
+                        "Registro maior que " + TAMANHO_MAXIMO_REGISTRO + " caracteres");
+            }
+            if (continuacao == null) {
+                descartarRegistro(linhaInicial, continuacoes);
+                throw new RegistroInvalidoException(linhaInicial, "Aspas sem fechamento");
+            }
+            continuacoes.add(continuacao);
+            campo.append('\n');
+            linha = continuacao;
+        }
+        campos.add(campo.toString().trim());
+        return campos;
+    }
+
+    private void descartarRegistro(int linhaInicial, List<String> continuacoes) {
+        for (int i = continuacoes.size() - 1; i >= 0; i--) {
+            pendentes.addFirst(continuacoes.get(i));
+        }
+        numeroLinha = linhaInicial;
+    }
+
+    private String lerLinha() {
+        String pendente = pendentes.pollFirst();
+        if (pendente != null) {
+            numeroLinha++;
+            if (pendente == LINHA_DESCARTADA) {
+                throw new RegistroInvalidoException(numeroLinha,
+                        "Registro maior que " + TAMANHO_MAXIMO_REGISTRO + " caracteres");
+            }
+            return pendente;
+        }
+        try {
+            StringBuilder linha = new StringBuilder();
+            int c = leitor.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1 && c != '\n' && c != '\r') {
+                if (linha.length() >= TAMANHO_MAXIMO_REGISTRO) {
+                    pularRestoDaLinha();
+                    numeroLinha++;
+                    throw new RegistroInvalidoException(numeroLinha,
+                            "Registro maior que " + TAMANHO_MAXIMO_REGISTRO + " caracteres");
+                }
+                linha.append((char) c);
+                c = leitor.read();
+            }
+            if (c == '\r') {
+                consumirQuebraAposRetorno();
+            }
+            numeroLinha++;
+            return linha.toString();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void pularRestoDaLinha() throws IOException {
+        int c = leitor.read();
+        while (c != -1 && c != '\n' && c != '\r') {
+            c = leitor.read();
+        }
+        if (c == '\r') {
+            consumirQuebraAposRetorno();
+        }
+    }
+
+    private void consumirQuebraAposRetorno() throws IOException {
+        leitor.mark(1);
+        if (leitor.read() != '\n') {
+            leitor.reset();
+        }
+    }
+}
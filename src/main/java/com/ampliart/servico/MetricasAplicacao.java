@@ -0,0 +1,84 @@
+package com.ampliart.servico;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class MetricasAplicacao implements MeterBinder {
+
+    private final FilaRenderizacaoPdf filaRenderizacaoPdf;
+    private final OrcamentoPdfServico orcamentoPdfServico;
+    private final ProdutoCodigoCache produtoCodigoCache;
+    private final IndicadoresCache indicadoresCache;
+    private final RepeticaoConflito repeticaoConflito;
+
+    public MetricasAplicacao(FilaRenderizacaoPdf filaRenderizacaoPdf,
+                             OrcamentoPdfServico orcamentoPdfServico,
+                             ProdutoCodigoCache produtoCodigoCache,
+                             IndicadoresCache indicadoresCache,
+                             RepeticaoConflito repeticaoConflito) {
+        this.filaRenderizacaoPdf = filaRenderizacaoPdf;
+        this.orcamentoPdfServico = orcamentoPdfServico;
+        this.produtoCodigoCache = produtoCodigoCache;
+        this.indicadoresCache = indicadoresCache;
+        this.repeticaoConflito = repeticaoConflito;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registro) {
+        FunctionTimer.builder("ampliart.pdf.renderizacao", filaRenderizacaoPdf,
+                        FilaRenderizacaoPdf::getConcluidas,
+                        FilaRenderizacaoPdf::getTempoTotalNanos, TimeUnit.NANOSECONDS)
+                .description("Tempo de renderizacao de PDF na fila dedicada")
+                .register(registro);
+        Gauge.builder("ampliart.pdf.fila", filaRenderizacaoPdf, fila -> fila.estatisticas().getEmFila())
+                .description("PDFs aguardando renderizacao")
+                .register(registro);
+        Gauge.builder("ampliart.pdf.em.execucao", filaRenderizacaoPdf, fila -> fila.estatisticas().getEmExecucao())
+                .register(registro);
+        FunctionCounter.builder("ampliart.pdf.rejeitados", filaRenderizacaoPdf, fila -> fila.estatisticas().getRejeitadas())
+                .description("PDFs recusados com 503 por fila cheia")
+                .register(registro);
+
+        FunctionCounter.builder("ampliart.cache.acessos", orcamentoPdfServico, OrcamentoPdfServico::getAcertos)
+                .tags("cache", "pdf", "resultado", "acerto")
+                .register(registro);
+        FunctionCounter.builder("ampliart.cache.acessos", orcamentoPdfServico, OrcamentoPdfServico::getFalhas)
+                .tags("cache", "pdf", "resultado", "falha")
+                .register(registro);
+        Gauge.builder("ampliart.cache.bytes", orcamentoPdfServico, OrcamentoPdfServico::getBytesEmCache)
+                .tags("cache", "pdf")
+                .register(registro);
+
+        FunctionCounter.builder("ampliart.cache.acessos", produtoCodigoCache, ProdutoCodigoCache::getAcertos)
+                .tags("cache", "produto.codigo", "resultado", "acerto")
+                .register(registro);
+        FunctionCounter.builder("ampliart.cache.acessos", produtoCodigoCache, ProdutoCodigoCache::getFalhas)
+                .tags("cache", "produto.codigo", "resultado", "falha")
+                .register(registro);
+        Gauge.builder("ampliart.cache.entradas", produtoCodigoCache, ProdutoCodigoCache::getTamanho)
+                .tags("cache", "produto.codigo")
+                .register(registro);
+
+        FunctionCounter.builder("ampliart.cache.acessos", indicadoresCache, cache -> cache.estatisticas().getAcertos())
+                .tags("cache", "indicadores", "resultado", "acerto")
+                .register(registro);
+        FunctionCounter.builder("ampliart.cache.acessos", indicadoresCache, cache -> cache.estatisticas().getFalhas())
+                .tags("cache", "indicadores", "resultado", "falha")
+                .register(registro);
+
+        FunctionCounter.builder("ampliart.conflitos.edicao", repeticaoConflito, RepeticaoConflito::getRepeticoes)
+                .tags("resultado", "repetido")
+                .description("Operacoes reexecutadas apos conflito de versao")
+                .register(registro);
+        FunctionCounter.builder("ampliart.conflitos.edicao", repeticaoConflito, RepeticaoConflito::getEsgotadas)
+                .tags("resultado", "esgotado")
+                .register(registro);
+    }
+}
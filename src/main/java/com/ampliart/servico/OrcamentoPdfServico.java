@@ -0,0 +1,216 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.dominio.OrcamentoItem;
+import com.ampliart.dominio.StatusOrcamento;
+import com.ampliart.dominio.TipoAjuste;
+import com.ampliart.repo.OrcamentoRepositorio;
+import com.ampliart.repo.VersaoOrcamento;
+import com.lowagie.text.Document;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class OrcamentoPdfServico {
+
+    private static final long LIMITE_CACHE_BYTES = 64L * 1024 * 1024;
+    private static final int LIMITE_ENTRADA_BYTES = 4 * 1024 * 1024;
+
+    private final OrcamentoRepositorio orcamentoRepositorio;
+    private final FilaRenderizacaoPdf filaRenderizacaoPdf;
+    private final Map<String, byte[]> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private long bytesEmCache;
+
+    public OrcamentoPdfServico(OrcamentoRepositorio orcamentoRepositorio,
+                               FilaRenderizacaoPdf filaRenderizacaoPdf) {
+        this.orcamentoRepositorio = orcamentoRepositorio;
+        this.filaRenderizacaoPdf = filaRenderizacaoPdf;
+    }
+
+    @Timed("ampliart.servico")
+    public String calcularEtag(Long orcamentoId) {
+        return "\"" + chave(orcamentoId, buscarVersao(orcamentoId)) + "\"";
+    }
+
+    @Timed("ampliart.servico")
+    public void escrever(Long orcamentoId, OutputStream destino) throws IOException {
+        String chave = chave(orcamentoId, buscarVersao(orcamentoId));
+        byte[] pdf;
+        synchronized (this) {
+            pdf = cache.get(chave);
+        }
+        if (pdf != null) {
+            acertos.incrementAndGet();
+            destino.write(pdf);
+            return;
+        }
+        falhas.incrementAndGet();
+        Orcamento orcamento = carregar(orcamentoId);
+        destino.write(filaRenderizacaoPdf.executar(() -> renderizar(chave, orcamento)));
+    }
+
+    @Timed("ampliart.servico")
+    public Future<byte[]> gerar(Long orcamentoId) {
+        String chave = chave(orcamentoId, buscarVersao(orcamentoId));
+        byte[] pdf;
+        synchronized (this) {
+            pdf = cache.get(chave);
+        }
+        if (pdf != null) {
+            acertos.incrementAndGet();
+            return CompletableFuture.completedFuture(pdf);
+        }
+        falhas.incrementAndGet();
+        Orcamento orcamento = carregar(orcamentoId);
+        return filaRenderizacaoPdf.agendar(() -> renderizar(chave, orcamento));
+    }
+
+    public long getAcertos() {
+        return acertos.get();
+    }
+
+    public long getFalhas() {
+        return falhas.get();
+    }
+
+    public synchronized long getBytesEmCache() {
+        return bytesEmCache;
+    }
+
+    void renderizar(Orcamento orcamento, OutputStream destino) {
+        Document document = new Document();
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, destino);
+            writer.setCloseStream(false);
+            document.open();
+            document.add(new Paragraph("Ampliart"));
+            document.add(new Paragraph("Orcamento: " + orcamento.getId()));
+            document.add(new Paragraph("Data: " + orcamento.getDataCadastro()));
+            document.add(new Paragraph("Cliente: " + orcamento.getClienteNome() + " - " + orcamento.getClienteTelefone()));
+            if (orcamento.getClienteEmail() != null) {
+                document.add(new Paragraph("Email: " + orcamento.getClienteEmail()));
+            }
+            document.add(new Paragraph("Status: " + orcamento.getStatus()));
+
+            document.add(new Paragraph(" "));
+            PdfPTable tabela = new PdfPTable(4);
+            tabela.setWidthPercentage(100);
+            tabela.addCell("Produto");
+            tabela.addCell("Qtd");
+            tabela.addCell("Preco unit");
+            tabela.addCell("Subtotal");
+            for (OrcamentoItem item : orcamento.getItens()) {
+                tabela.addCell(item.getProduto().getNome());
+                tabela.addCell(String.valueOf(item.getQuantidade()));
+                tabela.addCell(item.getPrecoUnitario().toString());
+                tabela.addCell(item.getSubtotal().toString());
+            }
+            document.add(tabela);
+
+            document.add(new Paragraph(" "));
+            document.add(new Paragraph("Total bruto: " + orcamento.getTotalBruto()));
+            if (orcamento.getPercentualAjuste() != null && orcamento.getTipoAjuste() != null) {
+                String sinal = orcamento.getTipoAjuste() == TipoAjuste.desconto ? "-" : "+";
+                document.add(new Paragraph("Ajuste: " + sinal + orcamento.getPercentualAjuste() + "%"));
+                document.add(new Paragraph("Valor do ajuste: " + orcamento.getValorAjuste()));
+            }
+            document.add(new Paragraph("Total final: " + orcamento.getTotalFinal()));
+            if (orcamento.getDataConclusao() != null) {
+                document.add(new Paragraph("Concluido em: " + orcamento.getDataConclusao()));
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException("Erro ao gerar PDF", ex);
+        } finally {
+            document.close();
+        }
+    }
+
+    private byte[] renderizar(String chave, Orcamento orcamento) {
+        BufferLimitado saida = new BufferLimitado();
+        renderizar(orcamento, saida);
+        byte[] pdf = saida.toByteArray();
+        if (finalizado(orcamento)) {
+            guardar(chave, pdf);
+        }
+        return pdf;
+    }
+
+    private Orcamento carregar(Long orcamentoId) {
+        return orcamentoRepositorio.buscarComItens(orcamentoId)
+                .orElseThrow(() -> new IllegalArgumentException("Orcamento nao encontrado"));
+    }
+
+    private boolean finalizado(Orcamento orcamento) {
+        return orcamento.getStatus() == StatusOrcamento.venda_concluida
+                || orcamento.getStatus() == StatusOrcamento.cancelado;
+    }
+
+    private synchronized void guardar(String chave, byte[] pdf) {
+        byte[] anterior = cache.put(chave, pdf);
+        bytesEmCache += pdf.length - (anterior != null ? anterior.length : 0);
+        Iterator<byte[]> maisAntigos = cache.values().iterator();
+        while (bytesEmCache > LIMITE_CACHE_BYTES && maisAntigos.hasNext()) {
+            bytesEmCache -= maisAntigos.next().length;
+            maisAntigos.remove();
+        }
+    }
+
+    private VersaoOrcamento buscarVersao(Long orcamentoId) {
+        return orcamentoRepositorio.buscarVersao(orcamentoId)
+                .orElseThrow(() -> new IllegalArgumentException("Orcamento nao encontrado"));
+    }
+
+    private static String chave(Long orcamentoId, VersaoOrcamento versao) {
+        String chave = orcamentoId + "-" + versao.getVersao() + "-" + instante(versao.getDataAtualizacao());
+        if (versao.getProdutosAtualizados() != null) {
+            chave += "-" + instante(versao.getProdutosAtualizados());
+        }
+        return chave;
+    }
+
+    private static String instante(LocalDateTime data) {
+        return data.toEpochSecond(ZoneOffset.UTC) + "." + data.getNano();
+    }
+
+    private static class BufferLimitado extends ByteArrayOutputStream {
+
+        BufferLimitado() {
+            super(16 * 1024);
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            verificarLimite(1);
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            verificarLimite(len);
+            super.write(b, off, len);
+        }
+
+        private void verificarLimite(int tamanho) {
+            if (count + tamanho > LIMITE_ENTRADA_BYTES) {
+                throw new IllegalStateException("PDF maior que " + LIMITE_ENTRADA_BYTES + " bytes");
+            }
+        }
+    }
+}
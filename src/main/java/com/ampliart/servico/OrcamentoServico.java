@@ -2,41 +2,98 @@ package com.ampliart.servico;
 
 import com.ampliart.dominio.*;
 import com.ampliart.repo.MovimentacaoEstoqueRepositorio;
+import com.ampliart.repo.OrcamentoEspecificacoes;
 import com.ampliart.repo.OrcamentoItemRepositorio;
 import com.ampliart.repo.OrcamentoRepositorio;
 import com.ampliart.repo.ProdutoRepositorio;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class OrcamentoServico {
 
+    private static final Set<String> ORDENACOES_LISTAGEM = Set.of("dataCadastro", "clienteNome", "totalFinal");
+
     private final OrcamentoRepositorio orcamentoRepositorio;
     private final OrcamentoItemRepositorio orcamentoItemRepositorio;
     private final ProdutoRepositorio produtoRepositorio;
     private final MovimentacaoEstoqueRepositorio movimentacaoEstoqueRepositorio;
+    private final VendaDiariaServico vendaDiariaServico;
+    private final IndicadoresCache indicadoresCache;
+    private final ProdutoCodigoCache produtoCodigoCache;
 
     public OrcamentoServico(OrcamentoRepositorio orcamentoRepositorio,
                             OrcamentoItemRepositorio orcamentoItemRepositorio,
                             ProdutoRepositorio produtoRepositorio,
-                            MovimentacaoEstoqueRepositorio movimentacaoEstoqueRepositorio) {
+                            MovimentacaoEstoqueRepositorio movimentacaoEstoqueRepositorio,
+                            VendaDiariaServico vendaDiariaServico,
+                            IndicadoresCache indicadoresCache,
+                            ProdutoCodigoCache produtoCodigoCache) {
         this.orcamentoRepositorio = orcamentoRepositorio;
         this.orcamentoItemRepositorio = orcamentoItemRepositorio;
         this.produtoRepositorio = produtoRepositorio;
         this.movimentacaoEstoqueRepositorio = movimentacaoEstoqueRepositorio;
+        this.vendaDiariaServico = vendaDiariaServico;
+        this.indicadoresCache = indicadoresCache;
+        this.produtoCodigoCache = produtoCodigoCache;
+    }
+
+    @Timed("ampliart.servico")
+    public Janela<Orcamento> listar(StatusOrcamento status,
+                                    LocalDate dataInicio,
+                                    LocalDate dataFim,
+                                    String ordenarPor,
+                                    Sort.Direction direcao,
+                                    Long depoisId,
+                                    int tamanho) {
+        Specification<Orcamento> filtro = OrcamentoEspecificacoes.todos();
+        if (status != null) {
+            filtro = filtro.and(OrcamentoEspecificacoes.comStatus(status));
+        }
+        if (dataInicio != null && dataFim != null) {
+            filtro = filtro.and(OrcamentoEspecificacoes.cadastradoEntre(dataInicio.atStartOfDay(), dataFim.plusDays(1).atStartOfDay()));
+        }
+        String propriedade = Paginacao.propriedade(ordenarPor, ORDENACOES_LISTAGEM, "dataCadastro");
+        Sort ordenacao = Paginacao.ordenacao(propriedade, direcao != null ? direcao : Sort.Direction.DESC);
+        Orcamento ancora = depoisId != null ? orcamentoRepositorio.findById(depoisId).orElse(null) : null;
+        ScrollPosition posicao = Paginacao.posicaoApos(ancora, depoisId, propriedade);
+        int limite = Paginacao.limitar(tamanho);
+
+        Window<Orcamento> janela = orcamentoRepositorio.findBy(filtro,
+                consulta -> consulta.sortBy(ordenacao).limit(limite).scroll(posicao));
+        return new Janela<>(janela.getContent(), janela.hasNext());
     }
 
+    @Timed("ampliart.servico")
     public Orcamento buscarPorId(Long id) {
         return orcamentoRepositorio.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Orcamento nao encontrado"));
     }
 
+    @Timed("ampliart.servico")
+    public Orcamento buscarDetalhe(Long id) {
+        return orcamentoRepositorio.buscarComItens(id)
+                .orElseThrow(() -> new IllegalArgumentException("Orcamento nao encontrado"));
+    }
+
     @Transactional
+    @Timed("ampliart.servico")
     public Orcamento criar(Orcamento orcamento) {
         if (orcamento.getClienteEmail() != null && orcamento.getClienteEmail().isBlank()) {
             orcamento.setClienteEmail(null);
@@ -48,17 +105,32 @@ public class OrcamentoServico {
     }
 
     @Transactional
+    @Timed("ampliart.servico")
     public Orcamento adicionarItemPorCodigo(Long orcamentoId, String codigoProduto, Integer quantidade) {
-        Orcamento orcamento = buscarPorId(orcamentoId);
-        Produto produto = produtoRepositorio.findByCodigo(codigoProduto)
-                .orElseThrow(() -> new IllegalArgumentException("Produto nao encontrado para o codigo informado"));
+        Orcamento orcamento = buscarParaEdicao(orcamentoId);
+        ProdutoCodigoCache.Entrada produto = produtoCodigoCache.obter(codigoProduto, codigo ->
+                produtoRepositorio.findByCodigo(codigo)
+                        .map(ProdutoCodigoCache.Entrada::de)
+                        .orElseThrow(() -> new IllegalArgumentException("Produto nao encontrado para o codigo informado")));
+        return adicionarItem(orcamento, produto.getProdutoId(), produto.getPrecoVenda(), quantidade);
+    }
+
+    @Transactional
+    @Timed("ampliart.servico")
+    public Orcamento adicionarItemPorProdutoId(Long orcamentoId, Long produtoId, Integer quantidade) {
+        Orcamento orcamento = buscarParaEdicao(orcamentoId);
+        Produto produto = produtoRepositorio.findById(produtoId)
+                .orElseThrow(() -> new IllegalArgumentException("Produto nao encontrado"));
+        return adicionarItem(orcamento, produto.getId(), produto.getPrecoVenda(), quantidade);
+    }
 
+    private Orcamento adicionarItem(Orcamento orcamento, Long produtoId, BigDecimal precoVenda, Integer quantidade) {
         if (quantidade == null || quantidade < 1) {
             quantidade = 1;
         }
 
         OrcamentoItem existente = orcamento.getItens().stream()
-                .filter(item -> item.getProduto().getId().equals(produto.getId()))
+                .filter(item -> item.getProduto().getId().equals(produtoId))
                 .findFirst()
                 .orElse(null);
 
@@ -69,21 +141,23 @@ public class OrcamentoServico {
         } else {
             OrcamentoItem item = new OrcamentoItem();
             item.setOrcamento(orcamento);
-            item.setProduto(produto);
+            item.setProduto(produtoRepositorio.getReferenceById(produtoId));
             item.setQuantidade(quantidade);
-            item.setPrecoUnitario(produto.getPrecoVenda().setScale(2, RoundingMode.HALF_UP));
+            item.setPrecoUnitario(precoVenda.setScale(2, RoundingMode.HALF_UP));
             item.setSubtotal(calcularSubtotal(item.getPrecoUnitario(), quantidade));
             orcamento.getItens().add(item);
             orcamentoItemRepositorio.save(item);
         }
 
         recalcularTotais(orcamento);
+        orcamento.setDataAtualizacao(LocalDateTime.now());
         return orcamentoRepositorio.save(orcamento);
     }
 
     @Transactional
+    @Timed("ampliart.servico")
     public Orcamento atualizarItem(Long orcamentoId, Long itemId, Integer quantidade, BigDecimal precoUnitario) {
-        Orcamento orcamento = buscarPorId(orcamentoId);
+        Orcamento orcamento = buscarParaEdicao(orcamentoId);
         OrcamentoItem item = orcamentoItemRepositorio.findById(itemId)
                 .orElseThrow(() -> new IllegalArgumentException("Item nao encontrado"));
 
@@ -101,12 +175,14 @@ public class OrcamentoServico {
         item.setSubtotal(calcularSubtotal(item.getPrecoUnitario(), item.getQuantidade()));
         orcamentoItemRepositorio.save(item);
         recalcularTotais(orcamento);
+        orcamento.setDataAtualizacao(LocalDateTime.now());
         return orcamentoRepositorio.save(orcamento);
     }
 
     @Transactional
+    @Timed("ampliart.servico")
     public Orcamento removerItem(Long orcamentoId, Long itemId) {
-        Orcamento orcamento = buscarPorId(orcamentoId);
+        Orcamento orcamento = buscarParaEdicao(orcamentoId);
         OrcamentoItem item = orcamentoItemRepositorio.findById(itemId)
                 .orElseThrow(() -> new IllegalArgumentException("Item nao encontrado"));
         if (!item.getOrcamento().getId().equals(orcamento.getId())) {
@@ -115,12 +191,14 @@ public class OrcamentoServico {
         orcamento.getItens().remove(item);
         orcamentoItemRepositorio.delete(item);
         recalcularTotais(orcamento);
+        orcamento.setDataAtualizacao(LocalDateTime.now());
         return orcamentoRepositorio.save(orcamento);
     }
 
     @Transactional
+    @Timed("ampliart.servico")
     public Orcamento aplicarAjuste(Long orcamentoId, TipoAjuste tipoAjuste, BigDecimal percentual) {
-        Orcamento orcamento = buscarPorId(orcamentoId);
+        Orcamento orcamento = buscarParaEdicao(orcamentoId);
         if (percentual != null) {
             percentual = percentual.setScale(2, RoundingMode.HALF_UP);
         }
@@ -131,8 +209,9 @@ public class OrcamentoServico {
     }
 
     @Transactional
+    @Timed("ampliart.servico")
     public Orcamento alterarStatus(Long orcamentoId, StatusOrcamento novoStatus) {
-        Orcamento orcamento = buscarPorId(orcamentoId);
+        Orcamento orcamento = buscarParaEdicao(orcamentoId);
         if (novoStatus == null) {
             throw new IllegalArgumentException("Status invalido");
         }
@@ -144,62 +223,89 @@ public class OrcamentoServico {
         orcamento.setStatus(novoStatus);
         if (novoStatus == StatusOrcamento.venda_concluida) {
             concluirVenda(orcamento);
+            indicadoresCache.invalidarAbertos();
         }
         return orcamentoRepositorio.save(orcamento);
     }
 
     @Transactional
+    @Timed("ampliart.servico")
     public void concluirVenda(Orcamento orcamento) {
         if (orcamento.getDataConclusao() != null) {
             return;
         }
-        orcamento.getItens().sort(Comparator.comparing(i -> i.getProduto().getId()));
+        LocalDateTime agora = LocalDateTime.now();
+        Map<Long, Integer> quantidadePorProduto = new TreeMap<>();
         for (OrcamentoItem item : orcamento.getItens()) {
-            Produto produto = produtoRepositorio.findById(item.getProduto().getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Produto nao encontrado"));
-            int novoSaldo = produto.getQuantidadeEstoque() - item.getQuantidade();
-            if (novoSaldo < 0) {
-                throw new IllegalStateException("Estoque insuficiente para o produto " + produto.getNome());
+            quantidadePorProduto.merge(item.getProduto().getId(), item.getQuantidade(), Integer::sum);
+        }
+        Map<Long, Produto> produtos = new HashMap<>();
+        for (Produto produto : produtoRepositorio.findAllById(quantidadePorProduto.keySet())) {
+            produtos.put(produto.getId(), produto);
+        }
+        if (produtos.size() != quantidadePorProduto.size()) {
+            throw new IllegalArgumentException("Produto nao encontrado");
+        }
+
+        if (!quantidadePorProduto.isEmpty()) {
+            Long[] ids = quantidadePorProduto.keySet().toArray(new Long[0]);
+            Integer[] quantidades = quantidadePorProduto.values().toArray(new Integer[0]);
+            List<Long> baixados = produtoRepositorio.baixarEstoqueEmLote(ids, quantidades, agora);
+            if (baixados.size() != ids.length) {
+                Set<Long> atualizados = new HashSet<>(baixados);
+                for (Long produtoId : ids) {
+                    if (!atualizados.contains(produtoId)) {
+                        Produto produto = produtos.get(produtoId);
+                        throw new EstoqueInsuficienteException(produto.getId(), produto.getNome());
+                    }
+                }
             }
+            movimentacaoEstoqueRepositorio.registrarEmLote(ids, quantidades, TipoMovimentacaoEstoque.saida.name(),
+                    "Baixa por venda do orcamento " + orcamento.getId(), agora);
         }
-        for (OrcamentoItem item : orcamento.getItens()) {
-            Produto produto = produtoRepositorio.findById(item.getProduto().getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Produto nao encontrado"));
-            produto.setQuantidadeEstoque(produto.getQuantidadeEstoque() - item.getQuantidade());
-            produtoRepositorio.save(produto);
 
-            MovimentacaoEstoque mov = new MovimentacaoEstoque();
-            mov.setProduto(produto);
-            mov.setTipo(TipoMovimentacaoEstoque.saida);
-            mov.setQuantidade(item.getQuantidade());
-            mov.setMotivo("Baixa por venda do orcamento " + orcamento.getId());
-            movimentacaoEstoqueRepositorio.save(mov);
+        Long[] produtoIds = quantidadePorProduto.keySet().toArray(new Long[0]);
+        BigDecimal[] custos = new BigDecimal[produtoIds.length];
+        Dinheiro gasto = Dinheiro.ZERO;
+        int itens = 0;
+        for (int i = 0; i < produtoIds.length; i++) {
+            custos[i] = produtos.get(produtoIds[i]).getPrecoCompra().setScale(2, RoundingMode.HALF_UP);
+            int quantidade = quantidadePorProduto.get(produtoIds[i]);
+            gasto = gasto.somar(Dinheiro.produto(custos[i], quantidade));
+            itens += quantidade;
         }
-        orcamento.setDataConclusao(LocalDateTime.now());
+        if (produtoIds.length > 0) {
+            orcamentoItemRepositorio.registrarCustos(orcamento.getId(), produtoIds, custos);
+        }
+        orcamento.setDataConclusao(agora);
+        vendaDiariaServico.registrarVenda(orcamento, gasto, itens);
     }
 
+    @Timed("ampliart.servico")
     public void recalcularTotais(Orcamento orcamento) {
-        BigDecimal totalBruto = orcamento.getItens().stream()
-                .map(OrcamentoItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
-        orcamento.setTotalBruto(totalBruto);
+        Dinheiro totalBruto = Dinheiro.ZERO;
+        for (OrcamentoItem item : orcamento.getItens()) {
+            totalBruto = totalBruto.somar(Dinheiro.de(item.getSubtotal()));
+        }
+        orcamento.setTotalBruto(totalBruto.paraBigDecimal());
 
-        BigDecimal valorAjuste = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+        Dinheiro valorAjuste = Dinheiro.ZERO;
         if (orcamento.getPercentualAjuste() != null && orcamento.getTipoAjuste() != null) {
-            valorAjuste = totalBruto
-                    .multiply(orcamento.getPercentualAjuste())
-                    .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+            valorAjuste = totalBruto.percentual(orcamento.getPercentualAjuste());
             if (orcamento.getTipoAjuste() == TipoAjuste.desconto) {
-                valorAjuste = valorAjuste.negate();
+                valorAjuste = valorAjuste.negar();
             }
         }
-        orcamento.setValorAjuste(valorAjuste);
-        BigDecimal totalFinal = totalBruto.add(valorAjuste).setScale(2, RoundingMode.HALF_UP);
-        orcamento.setTotalFinal(totalFinal);
+        orcamento.setValorAjuste(valorAjuste.paraBigDecimal());
+        orcamento.setTotalFinal(totalBruto.somar(valorAjuste).paraBigDecimal());
+    }
+
+    private Orcamento buscarParaEdicao(Long id) {
+        return orcamentoRepositorio.buscarParaEdicao(id)
+                .orElseThrow(() -> new IllegalArgumentException("Orcamento nao encontrado"));
     }
 
     private BigDecimal calcularSubtotal(BigDecimal precoUnitario, Integer quantidade) {
-        return precoUnitario.multiply(new BigDecimal(quantidade)).setScale(2, RoundingMode.HALF_UP);
+        return Dinheiro.produto(precoUnitario, quantidade).paraBigDecimal();
     }
 }
@@ -0,0 +1,40 @@
+package com.ampliart.servico;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+final class Paginacao {
+
+    static final int TAMANHO_MAXIMO = 200;
+
+    private Paginacao() {
+    }
+
+    static int limitar(int tamanho) {
+        return Math.clamp(tamanho, 1, TAMANHO_MAXIMO);
+    }
+
+    static String propriedade(String ordenarPor, Set<String> permitidas, String padrao) {
+        return ordenarPor != null && permitidas.contains(ordenarPor) ? ordenarPor : padrao;
+    }
+
+    static Sort ordenacao(String propriedade, Sort.Direction direcao) {
+        Sort.Direction sentido = direcao != null ? direcao : Sort.Direction.ASC;
+        return Sort.by(sentido, propriedade).and(Sort.by(sentido, "id"));
+    }
+
+    static ScrollPosition posicaoApos(Object ancora, Long id, String propriedade) {
+        if (ancora == null) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> chaves = new LinkedHashMap<>();
+        chaves.put(propriedade, new BeanWrapperImpl(ancora).getPropertyValue(propriedade));
+        chaves.put("id", id);
+        return ScrollPosition.forward(chaves);
+    }
+}
@@ -0,0 +1,138 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.Produto;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+public class ProdutoCodigoCache {
+
+    public static class Entrada {
+        private final Long produtoId;
+        private final String codigo;
+        private final BigDecimal precoVenda;
+
+        public Entrada(Long produtoId, String codigo, BigDecimal precoVenda) {
+            this.produtoId = produtoId;
+            this.codigo = codigo;
+            this.precoVenda = precoVenda;
+        }
+
+        public static Entrada de(Produto produto) {
+            return new Entrada(produto.getId(), produto.getCodigo(), produto.getPrecoVenda());
+        }
+
+        public Long getProdutoId() {
+            return produtoId;
+        }
+
+        public String getCodigo() {
+            return codigo;
+        }
+
+        public BigDecimal getPrecoVenda() {
+            return precoVenda;
+        }
+    }
+
+    private static final int LIMITE = 20_000;
+
+    private final Map<String, Entrada> porCodigo = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+            if (size() > LIMITE) {
+                codigoPorId.remove(maisAntiga.getValue().getProdutoId());
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<Long, String> codigoPorId = new HashMap<>();
+    private final AtomicLong geracao = new AtomicLong();
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+
+    public Entrada obter(String codigo, Function<String, Entrada> carregar) {
+        synchronized (this) {
+            Entrada entrada = porCodigo.get(codigo);
+            if (entrada != null) {
+                acertos.incrementAndGet();
+                return entrada;
+            }
+        }
+        falhas.incrementAndGet();
+        long geracaoInicial = geracao.get();
+        Entrada carregada = carregar.apply(codigo);
+        synchronized (this) {
+            if (geracao.get() == geracaoInicial) {
+                guardar(carregada);
+            }
+        }
+        return carregada;
+    }
+
+    public void invalidar(Produto produto) {
+        Long produtoId = produto.getId();
+        String codigo = produto.getCodigo();
+        Runnable acao = () -> {
+            synchronized (this) {
+                geracao.incrementAndGet();
+                if (produtoId != null) {
+                    String codigoAnterior = codigoPorId.remove(produtoId);
+                    if (codigoAnterior != null) {
+                        porCodigo.remove(codigoAnterior);
+                    }
+                }
+                if (codigo != null) {
+                    porCodigo.remove(codigo);
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    public void invalidarTudo() {
+        synchronized (this) {
+            geracao.incrementAndGet();
+            porCodigo.clear();
+            codigoPorId.clear();
+        }
+    }
+
+    public long getAcertos() {
+        return acertos.get();
+    }
+
+    public long getFalhas() {
+        return falhas.get();
+    }
+
+    public synchronized int getTamanho() {
+        return porCodigo.size();
+    }
+
+    private void guardar(Entrada entrada) {
+        String codigoAnterior = codigoPorId.put(entrada.getProdutoId(), entrada.getCodigo());
+        if (codigoAnterior != null && !codigoAnterior.equals(entrada.getCodigo())) {
+            porCodigo.remove(codigoAnterior);
+        }
+        porCodigo.put(entrada.getCodigo(), entrada);
+    }
+}
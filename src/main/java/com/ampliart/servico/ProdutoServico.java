@@ -1,69 +1,162 @@
 package com.ampliart.servico;
 
 import com.ampliart.dominio.Produto;
+import com.ampliart.repo.ProdutoEspecificacoes;
 import com.ampliart.repo.ProdutoRepositorio;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ProdutoServico {
 
-    private final ProdutoRepositorio produtoRepositorio;
+    public static class OpcaoProduto {
+        private final Long id;
+        private final String codigo;
+        private final String nome;
+        private final String categoria;
+        private final BigDecimal precoVenda;
+        private final Integer quantidadeEstoque;
 
-    public ProdutoServico(ProdutoRepositorio produtoRepositorio) {
-        this.produtoRepositorio = produtoRepositorio;
-    }
+        public OpcaoProduto(Long id, String codigo, String nome, String categoria,
+                            BigDecimal precoVenda, Integer quantidadeEstoque) {
+            this.id = id;
+            this.codigo = codigo;
+            this.nome = nome;
+            this.categoria = categoria;
+            this.precoVenda = precoVenda;
+            this.quantidadeEstoque = quantidadeEstoque;
+        }
 
-    public List<Produto> listar(String nome, String codigo, Boolean ativo) {
-        if (codigo != null && !codigo.isBlank()) {
-            Optional<Produto> produto = produtoRepositorio.findByCodigo(codigo);
-            return produto.map(List::of).orElseGet(List::of);
+        public static OpcaoProduto de(Produto produto) {
+            return new OpcaoProduto(produto.getId(), produto.getCodigo(), produto.getNome(),
+                    produto.getCategoria() != null ? produto.getCategoria().getNome() : null,
+                    produto.getPrecoVenda(), produto.getQuantidadeEstoque());
         }
-        if (nome != null && !nome.isBlank() && ativo != null) {
-            return produtoRepositorio.findByNomeContainingIgnoreCaseAndAtivo(nome, ativo);
+
+        public Long getId() {
+            return id;
         }
-        if (nome != null && !nome.isBlank()) {
-            return produtoRepositorio.findByNomeContainingIgnoreCase(nome);
+
+        public String getCodigo() {
+            return codigo;
         }
-        if (ativo != null) {
-            return produtoRepositorio.findByAtivo(ativo);
+
+        public String getNome() {
+            return nome;
         }
-        return produtoRepositorio.findAll();
-    }
 
-    public List<Produto> listarPorNomeECategoria(String nome, Long categoriaId) {
-        boolean temNome = nome != null && !nome.isBlank();
-        if (temNome && categoriaId != null) {
-            return produtoRepositorio.findByNomeContainingIgnoreCaseAndCategoriaId(nome, categoriaId);
+        public String getCategoria() {
+            return categoria;
         }
-        if (temNome) {
-            return produtoRepositorio.findByNomeContainingIgnoreCase(nome);
+
+        public BigDecimal getPrecoVenda() {
+            return precoVenda;
         }
+
+        public Integer getQuantidadeEstoque() {
+            return quantidadeEstoque;
+        }
+    }
+
+    private static final int LIMITE_OPCOES = 50;
+    private static final Set<String> ORDENACOES_LISTAGEM = Set.of("nome", "codigo", "precoVenda", "quantidadeEstoque");
+
+    private final ProdutoRepositorio produtoRepositorio;
+    private final ProdutoCodigoCache produtoCodigoCache;
+
+    public ProdutoServico(ProdutoRepositorio produtoRepositorio, ProdutoCodigoCache produtoCodigoCache) {
+        this.produtoRepositorio = produtoRepositorio;
+        this.produtoCodigoCache = produtoCodigoCache;
+    }
+
+    @Timed("ampliart.servico")
+    public Janela<Produto> listarPagina(String nome,
+                                        String codigo,
+                                        Boolean ativo,
+                                        String ordenarPor,
+                                        Sort.Direction direcao,
+                                        Long depoisId,
+                                        int tamanho) {
+        Specification<Produto> filtro = ProdutoEspecificacoes.todos();
+        if (codigo != null && !codigo.isBlank()) {
+            filtro = filtro.and(ProdutoEspecificacoes.comCodigo(codigo));
+        } else {
+            if (nome != null && !nome.isBlank()) {
+                filtro = filtro.and(ProdutoEspecificacoes.nomeContem(nome));
+            }
+            if (ativo != null) {
+                filtro = filtro.and(ProdutoEspecificacoes.ativo(ativo));
+            }
+        }
+        String propriedade = Paginacao.propriedade(ordenarPor, ORDENACOES_LISTAGEM, "nome");
+        Sort ordenacao = Paginacao.ordenacao(propriedade, direcao);
+        Produto ancora = depoisId != null ? produtoRepositorio.findById(depoisId).orElse(null) : null;
+        ScrollPosition posicao = Paginacao.posicaoApos(ancora, depoisId, propriedade);
+        int limite = Paginacao.limitar(tamanho);
+
+        Window<Produto> janela = produtoRepositorio.findBy(filtro,
+                consulta -> consulta.sortBy(ordenacao).limit(limite).scroll(posicao));
+        return new Janela<>(janela.getContent(), janela.hasNext());
+    }
+
+    @Timed("ampliart.servico")
+    public Janela<OpcaoProduto> buscarOpcoes(String nome, Long categoriaId, Long depoisId, int tamanho) {
+        Specification<Produto> filtro = ProdutoEspecificacoes.carregandoCategoria();
         if (categoriaId != null) {
-            return produtoRepositorio.findByCategoriaId(categoriaId);
+            filtro = filtro.and(ProdutoEspecificacoes.daCategoria(categoriaId));
         }
-        return produtoRepositorio.findAll();
+        int limite = Math.min(Paginacao.limitar(tamanho), LIMITE_OPCOES);
+        if (nome != null && !nome.isBlank()) {
+            String termo = nome.trim();
+            filtro = filtro.and(ProdutoEspecificacoes.nomeContem(termo))
+                    .and(ProdutoEspecificacoes.ordenadoPorSimilaridade(termo));
+            if (depoisId != null) {
+                filtro = filtro.and(ProdutoEspecificacoes.menosSimilarQue(termo, depoisId));
+            }
+            List<Produto> linhas = produtoRepositorio.findBy(filtro, consulta -> consulta.limit(limite + 1).all());
+            return Janela.de(linhas.stream().map(OpcaoProduto::de).toList(), limite);
+        }
+
+        Sort ordenacao = Paginacao.ordenacao("nome", Sort.Direction.ASC);
+        Produto ancora = depoisId != null ? produtoRepositorio.findById(depoisId).orElse(null) : null;
+        ScrollPosition posicao = Paginacao.posicaoApos(ancora, depoisId, "nome");
+        Window<Produto> janela = produtoRepositorio.findBy(filtro,
+                consulta -> consulta.sortBy(ordenacao).limit(limite).scroll(posicao));
+        return new Janela<>(janela.getContent().stream().map(OpcaoProduto::de).toList(), janela.hasNext());
     }
 
+    @Timed("ampliart.servico")
     public Produto buscarPorId(Long id) {
         return produtoRepositorio.findById(id).orElseThrow(() -> new IllegalArgumentException("Produto nao encontrado"));
     }
 
+    @Timed("ampliart.servico")
     public Produto buscarPorCodigo(String codigo) {
         return produtoRepositorio.findByCodigo(codigo)
                 .orElseThrow(() -> new IllegalArgumentException("Produto nao encontrado"));
     }
 
     @Transactional
+    @Timed("ampliart.servico")
     public Produto salvar(Produto produto) {
         try {
-            return produtoRepositorio.save(produto);
+            produtoCodigoCache.invalidar(produto);
+            return produtoRepositorio.saveAndFlush(produto);
         } catch (DataIntegrityViolationException ex) {
             throw new IllegalArgumentException("Codigo ja cadastrado");
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ConflitoEdicaoException(ex);
         }
     }
 }
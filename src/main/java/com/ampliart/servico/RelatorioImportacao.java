@@ -0,0 +1,74 @@
+package com.ampliart.servico;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class RelatorioImportacao {
+
+    public static class ErroLinha {
+        private final int linha;
+        private final String codigo;
+        private final String mensagem;
+
+        public ErroLinha(int linha, String codigo, String mensagem) {
+            this.linha = linha;
+            this.codigo = codigo;
+            this.mensagem = mensagem;
+        }
+
+        public int getLinha() {
+            return linha;
+        }
+
+        public String getCodigo() {
+            return codigo;
+        }
+
+        public String getMensagem() {
+            return mensagem;
+        }
+    }
+
+    private static final int LIMITE_ERROS = 1000;
+
+    private final List<ErroLinha> erros = new ArrayList<>();
+    private int linhasLidas;
+    private int linhasImportadas;
+    private int totalErros;
+
+    void registrarLeitura() {
+        linhasLidas++;
+    }
+
+    void registrarImportadas(int quantidade) {
+        linhasImportadas += quantidade;
+    }
+
+    void registrarErro(int linha, String codigo, String mensagem) {
+        totalErros++;
+        if (erros.size() < LIMITE_ERROS) {
+            erros.add(new ErroLinha(linha, codigo, mensagem));
+        }
+    }
+
+    public int getLinhasLidas() {
+        return linhasLidas;
+    }
+
+    public int getLinhasImportadas() {
+        return linhasImportadas;
+    }
+
+    public int getTotalErros() {
+        return totalErros;
+    }
+
+    public int getErrosOmitidos() {
+        return totalErros - erros.size();
+    }
+
+    public List<ErroLinha> getErros() {
+        return Collections.unmodifiableList(erros);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ampliart.servico;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class RepeticaoConflito {
+
+    private static final int TENTATIVAS = 3;
+    private static final long ESPERA_BASE_MILIS = 10;
+
+    private final AtomicLong repeticoes = new AtomicLong();
+    private final AtomicLong esgotadas = new AtomicLong();
+
+    public <T> T executar(Supplier<T> operacao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return operacao.get();
+            } catch (OptimisticLockingFailureException ex) {
+                if (tentativa >= TENTATIVAS) {
+                    esgotadas.incrementAndGet();
+                    throw new ConflitoEdicaoException(ex);
+                }
+                repeticoes.incrementAndGet();
+                aguardar(tentativa, ex);
+            }
+        }
+    }
+
+    public long getRepeticoes() {
+        return repeticoes.get();
+    }
+
+    public long getEsgotadas() {
+        return esgotadas.get();
+    }
+
+    private void aguardar(int tentativa, OptimisticLockingFailureException conflito) {
+        long espera = ESPERA_BASE_MILIS * tentativa + ThreadLocalRandom.current().nextLong(ESPERA_BASE_MILIS);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflitoEdicaoException(conflito);
+        }
+    }
+}
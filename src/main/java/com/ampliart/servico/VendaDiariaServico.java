@@ -0,0 +1,57 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.Dinheiro;
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.dominio.OrcamentoItem;
+import com.ampliart.repo.VendaDiariaRepositorio;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.RoundingMode;
+
+@Service
+public class VendaDiariaServico {
+
+    private final VendaDiariaRepositorio vendaDiariaRepositorio;
+    private final IndicadoresCache indicadoresCache;
+
+    public VendaDiariaServico(VendaDiariaRepositorio vendaDiariaRepositorio,
+                              IndicadoresCache indicadoresCache) {
+        this.vendaDiariaRepositorio = vendaDiariaRepositorio;
+        this.indicadoresCache = indicadoresCache;
+    }
+
+    @Transactional
+    @Timed("ampliart.servico")
+    public void registrarVenda(Orcamento orcamento) {
+        Dinheiro gasto = Dinheiro.ZERO;
+        int itens = 0;
+        for (OrcamentoItem item : orcamento.getItens()) {
+            gasto = gasto.somar(Dinheiro.produto(item.getCustoUnitario(), item.getQuantidade()));
+            itens += item.getQuantidade();
+        }
+        registrarVenda(orcamento, gasto, itens);
+    }
+
+    @Transactional
+    @Timed("ampliart.servico")
+    public void registrarVenda(Orcamento orcamento, Dinheiro gasto, int itens) {
+        if (orcamento.getDataConclusao() == null) {
+            throw new IllegalStateException("Orcamento ainda nao foi concluido");
+        }
+        vendaDiariaRepositorio.acumularVenda(orcamento.getDataConclusao().toLocalDate(),
+                orcamento.getTotalFinal().setScale(2, RoundingMode.HALF_UP),
+                gasto.paraBigDecimal(),
+                itens);
+    }
+
+    @Transactional
+    @Timed("ampliart.servico")
+    public int reconstruir() {
+        vendaDiariaRepositorio.limpar();
+        int dias = vendaDiariaRepositorio.reconstruir();
+        indicadoresCache.invalidarTudo();
+        return dias;
+    }
+}
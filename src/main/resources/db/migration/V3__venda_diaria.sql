@@ -0,0 +1,37 @@
+create table if not exists ampliart.venda_diaria (
+    dia date primary key,
+    receita numeric(19,2) not null,
+    gasto numeric(19,2) not null,
+    lucro numeric(19,2) not null,
+    quantidade_vendas integer not null,
+    quantidade_itens integer not null
+);
+
+insert into ampliart.venda_diaria (dia, receita, gasto, lucro, quantidade_vendas, quantidade_itens)
+select v.dia,
+       v.receita,
+       coalesce(c.gasto, 0),
+       v.receita - coalesce(c.gasto, 0),
+       v.quantidade_vendas,
+       coalesce(c.quantidade_itens, 0)
+from (
+    select cast(o.data_conclusao as date) as dia,
+           sum(o.total_final) as receita,
+           count(*) as quantidade_vendas
+    from ampliart.orcamento o
+    where o.status = 'venda_concluida'
+      and o.data_conclusao is not null
+    group by cast(o.data_conclusao as date)
+) v
+left join (
+    select cast(o.data_conclusao as date) as dia,
+           sum(p.preco_compra * i.quantidade) as gasto,
+           sum(i.quantidade) as quantidade_itens
+    from ampliart.orcamento_item i
+    join ampliart.orcamento o on o.id = i.orcamento_id
+    join ampliart.produto p on p.id = i.produto_id
+    where o.status = 'venda_concluida'
+      and o.data_conclusao is not null
+    group by cast(o.data_conclusao as date)
+) c on c.dia = v.dia
+on conflict (dia) do nothing;
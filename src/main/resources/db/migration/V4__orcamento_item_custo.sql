@@ -0,0 +1,7 @@
+alter table ampliart.orcamento_item add column if not exists custo_unitario numeric(19,2);
+
+update ampliart.orcamento_item i
+set custo_unitario = p.preco_compra
+from ampliart.produto p
+where p.id = i.produto_id
+  and i.custo_unitario is null;
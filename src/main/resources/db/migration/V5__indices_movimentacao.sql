@@ -0,0 +1,10 @@
+create index if not exists idx_movimentacao_data_id
+    on ampliart.movimentacao_estoque (data_movimentacao desc, id desc);
+
+create index if not exists idx_movimentacao_produto_data_id
+    on ampliart.movimentacao_estoque (produto_id, data_movimentacao desc, id desc);
+
+create index if not exists idx_movimentacao_tipo_data_id
+    on ampliart.movimentacao_estoque (tipo, data_movimentacao desc, id desc);
+
+drop index if exists ampliart.idx_movimentacao_produto;
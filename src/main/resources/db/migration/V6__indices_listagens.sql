@@ -0,0 +1,8 @@
+create index if not exists idx_orcamento_cadastro_id on ampliart.orcamento (data_cadastro, id);
+create index if not exists idx_orcamento_status_cadastro_id on ampliart.orcamento (status, data_cadastro, id);
+create index if not exists idx_orcamento_cliente_id on ampliart.orcamento (cliente_nome, id);
+create index if not exists idx_orcamento_total_id on ampliart.orcamento (total_final, id);
+
+create index if not exists idx_produto_nome_id on ampliart.produto (nome, id);
+create index if not exists idx_produto_preco_venda_id on ampliart.produto (preco_venda, id);
+create index if not exists idx_produto_estoque_id on ampliart.produto (quantidade_estoque, id);
@@ -0,0 +1,15 @@
+create extension if not exists pg_trgm with schema public;
+create extension if not exists unaccent with schema public;
+
+create or replace function ampliart.f_unaccent(texto text)
+    returns text
+    language sql
+    immutable
+    parallel safe
+    strict
+as $$
+    select public.unaccent('public.unaccent'::regdictionary, texto)
+$$;
+
+create index if not exists idx_produto_nome_trgm
+    on ampliart.produto using gin (ampliart.f_unaccent(lower(nome)) public.gin_trgm_ops);
@@ -0,0 +1,29 @@
+create sequence if not exists ampliart.categoria_seq increment by 50;
+create sequence if not exists ampliart.produto_seq increment by 50;
+create sequence if not exists ampliart.orcamento_seq increment by 50;
+create sequence if not exists ampliart.orcamento_item_seq increment by 50;
+create sequence if not exists ampliart.movimentacao_estoque_seq increment by 50;
+
+select setval('ampliart.categoria_seq', (select coalesce(max(id), 0) + 51 from ampliart.categoria), false);
+select setval('ampliart.produto_seq', (select coalesce(max(id), 0) + 51 from ampliart.produto), false);
+select setval('ampliart.orcamento_seq', (select coalesce(max(id), 0) + 51 from ampliart.orcamento), false);
+select setval('ampliart.orcamento_item_seq', (select coalesce(max(id), 0) + 51 from ampliart.orcamento_item), false);
+select setval('ampliart.movimentacao_estoque_seq', (select coalesce(max(id), 0) + 51 from ampliart.movimentacao_estoque), false);
+
+alter table ampliart.categoria alter column id set default nextval('ampliart.categoria_seq');
+alter table ampliart.produto alter column id set default nextval('ampliart.produto_seq');
+alter table ampliart.orcamento alter column id set default nextval('ampliart.orcamento_seq');
+alter table ampliart.orcamento_item alter column id set default nextval('ampliart.orcamento_item_seq');
+alter table ampliart.movimentacao_estoque alter column id set default nextval('ampliart.movimentacao_estoque_seq');
+
+alter sequence ampliart.categoria_seq owned by ampliart.categoria.id;
+alter sequence ampliart.produto_seq owned by ampliart.produto.id;
+alter sequence ampliart.orcamento_seq owned by ampliart.orcamento.id;
+alter sequence ampliart.orcamento_item_seq owned by ampliart.orcamento_item.id;
+alter sequence ampliart.movimentacao_estoque_seq owned by ampliart.movimentacao_estoque.id;
+
+drop sequence if exists ampliart.categoria_id_seq;
+drop sequence if exists ampliart.produto_id_seq;
+drop sequence if exists ampliart.orcamento_id_seq;
+drop sequence if exists ampliart.orcamento_item_id_seq;
+drop sequence if exists ampliart.movimentacao_estoque_id_seq;
@@ -0,0 +1,3 @@
+alter table ampliart.produto add column if not exists versao bigint not null default 0;
+alter table ampliart.orcamento add column if not exists versao bigint not null default 0;
+alter table ampliart.orcamento_item add column if not exists versao bigint not null default 0;
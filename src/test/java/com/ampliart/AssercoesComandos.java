@@ -0,0 +1,38 @@
+package com.ampliart;
+
+import com.ampliart.repo.ContadorComandos;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public final class AssercoesComandos {
+
+	private AssercoesComandos() {
+	}
+
+	public static int contarComandos(Executable acao) {
+		ContadorComandos.iniciar();
+		try {
+			acao.execute();
+			return ContadorComandos.contagem();
+		} catch (Throwable ex) {
+			return fail(ex);
+		} finally {
+			ContadorComandos.encerrar();
+		}
+	}
+
+	public static int assertComandosNoMaximo(int limite, Executable acao) {
+		int comandos = contarComandos(acao);
+		assertTrue(comandos <= limite, () -> "Executou " + comandos + " comandos SQL, limite " + limite);
+		return comandos;
+	}
+
+	public static void assertMesmosComandos(Executable referencia, Executable comparada, Supplier<String> mensagem) {
+		assertEquals(contarComandos(referencia), contarComandos(comparada), mensagem);
+	}
+}
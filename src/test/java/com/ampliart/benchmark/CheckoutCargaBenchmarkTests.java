@@ -0,0 +1,248 @@
+package com.ampliart.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Simula o balcao: cria um orcamento, le {@code LEITURAS} codigos de barras por
+ * {@code /itens/adicionar}, aplica um desconto e conclui a venda, com {@code CLIENTES} caixas em
+ * paralelo contra um PostgreSQL efemero. Imprime vazao de vendas, p50/p99 por etapa e a
+ * quantidade de comandos SQL por etapa, medida numa passada sequencial antes da carga. Como as
+ * falhas de cada etapa tambem respondem com redirecionamento, uma venda so entra na vazao quando o
+ * banco confirma o status concluido, o desconto e os {@code LEITURAS} itens.
+ * <p>
+ * Precisa de Docker. Executar com {@code mvn test -Dgroups=benchmark -DexcludedGroups= -Dtest=CheckoutCargaBenchmarkTests}.
+ */
+@Tag("benchmark")
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CheckoutCargaBenchmarkTests {
+
+	private static final int PRODUTOS = 10_000;
+	private static final int LEITURAS = 20;
+	private static final int CLIENTES = 32;
+	private static final Duration DURACAO = Duration.ofSeconds(60);
+	private static final List<String> ETAPAS = List.of("criar", "escanear", "ajuste", "concluir");
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+	@Autowired
+	private Environment ambiente;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final HttpClient cliente = HttpClient.newBuilder()
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.followRedirects(HttpClient.Redirect.NEVER)
+			.build();
+
+	@Test
+	void vendasNoBalcao() throws Exception {
+		semearCatalogo();
+		Map<String, Double> comandos = medirComandosPorEtapa();
+
+		Map<String, List<Long>> latencias = new LinkedHashMap<>();
+		ETAPAS.forEach(etapa -> latencias.put(etapa, Collections.synchronizedList(new ArrayList<>())));
+		AtomicLong vendas = new AtomicLong();
+		AtomicLong naoConfirmadas = new AtomicLong();
+		AtomicLong erros = new AtomicLong();
+		long fim = System.nanoTime() + DURACAO.toNanos();
+		try (ExecutorService caixas = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < CLIENTES; c++) {
+				caixas.submit(() -> {
+					while (System.nanoTime() < fim) {
+						try {
+							String id = venderComLatencias(latencias);
+							if (vendaConfirmada(id)) {
+								vendas.incrementAndGet();
+							} else {
+								naoConfirmadas.incrementAndGet();
+							}
+						} catch (Exception ex) {
+							erros.incrementAndGet();
+						}
+					}
+					return null;
+				});
+			}
+		}
+
+		Integer concluidasNoBanco = jdbcTemplate.queryForObject(
+				"select count(*) from ampliart.orcamento where status = 'venda_concluida'", Integer.class);
+		System.out.printf("Vendas confirmadas: %d em %ds (%.1f vendas/s), nao confirmadas: %d, erros: %d, concluidas no banco: %d%n",
+				vendas.get(), DURACAO.toSeconds(), vendas.get() / (double) DURACAO.toSeconds(), naoConfirmadas.get(),
+				erros.get(), concluidasNoBanco);
+		System.out.println("Etapa       p50 ms   p99 ms   comandos SQL");
+		for (String etapa : ETAPAS) {
+			List<Long> amostras = new ArrayList<>(latencias.get(etapa));
+			Collections.sort(amostras);
+			System.out.printf("%-10s %8.1f %8.1f %14.1f%n", etapa,
+					percentil(amostras, 0.50), percentil(amostras, 0.99), comandos.get(etapa));
+		}
+	}
+
+	private void semearCatalogo() {
+		Long categoriaId = jdbcTemplate.queryForObject(
+				"select id from ampliart.categoria where nome = 'Sem categoria'", Long.class);
+		jdbcTemplate.update("insert into ampliart.produto (codigo, nome, categoria_id, preco_compra, preco_venda, " +
+				"quantidade_estoque, ativo, data_cadastro, data_atualizacao) " +
+				"select 'CARGA-' || lpad(n::text, 6, '0'), 'Produto carga ' || n, ?, 5.00, 9.90, 1000000, true, now(), now() " +
+				"from generate_series(1, ?) as n", categoriaId, PRODUTOS);
+		jdbcTemplate.execute("analyze ampliart.produto");
+	}
+
+	private Map<String, Double> medirComandosPorEtapa() throws Exception {
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Map<String, Double> comandos = new LinkedHashMap<>();
+		for (int i = 0; i < 10; i++) {
+			venderComLatencias(null);
+		}
+		estatisticas.clear();
+		String id = medirComandos(estatisticas, comandos, "criar", 1, this::criarOrcamento);
+		medirComandos(estatisticas, comandos, "escanear", LEITURAS, () -> {
+			for (int i = 0; i < LEITURAS; i++) {
+				escanear(id);
+			}
+			return null;
+		});
+		medirComandos(estatisticas, comandos, "ajuste", 1, () -> aplicarAjuste(id));
+		medirComandos(estatisticas, comandos, "concluir", 1, () -> concluir(id));
+		return comandos;
+	}
+
+	private <T> T medirComandos(Statistics estatisticas, Map<String, Double> comandos, String etapa,
+								int repeticoes, Supplier<T> acao) {
+		long antes = estatisticas.getPrepareStatementCount();
+		T resultado = acao.get();
+		comandos.put(etapa, (estatisticas.getPrepareStatementCount() - antes) / (double) repeticoes);
+		return resultado;
+	}
+
+	private String venderComLatencias(Map<String, List<Long>> latencias) {
+		long inicio = System.nanoTime();
+		String id = criarOrcamento();
+		registrar(latencias, "criar", inicio);
+		for (int i = 0; i < LEITURAS; i++) {
+			inicio = System.nanoTime();
+			escanear(id);
+			registrar(latencias, "escanear", inicio);
+		}
+		inicio = System.nanoTime();
+		aplicarAjuste(id);
+		registrar(latencias, "ajuste", inicio);
+		inicio = System.nanoTime();
+		concluir(id);
+		registrar(latencias, "concluir", inicio);
+		return id;
+	}
+
+	private boolean vendaConfirmada(String id) {
+		Integer confirmadas = jdbcTemplate.queryForObject(
+				"select count(*) from ampliart.orcamento o " +
+				"where o.id = ? and o.status = 'venda_concluida' and o.tipo_ajuste = 'desconto' " +
+				"and (select coalesce(sum(i.quantidade), 0) from ampliart.orcamento_item i where i.orcamento_id = o.id) = ?",
+				Integer.class, Long.valueOf(id), LEITURAS);
+		return confirmadas != null && confirmadas == 1;
+	}
+
+	private String criarOrcamento() {
+		HttpResponse<Void> resposta = postar("/orcamentos/novo",
+				Map.of("clienteNome", "Cliente balcao", "clienteTelefone", "(11) 90000-0000"));
+		String destino = resposta.headers().firstValue("Location")
+				.orElseThrow(() -> new IllegalStateException("Orcamento nao criado: " + resposta.statusCode()));
+		return destino.substring(destino.lastIndexOf('/') + 1);
+	}
+
+	private Void escanear(String id) {
+		String codigo = String.format("CARGA-%06d", ThreadLocalRandom.current().nextInt(1, PRODUTOS + 1));
+		postar("/orcamentos/" + id + "/itens/adicionar", Map.of("codigoProduto", codigo, "quantidade", "1"));
+		return null;
+	}
+
+	private Void aplicarAjuste(String id) {
+		postar("/orcamentos/" + id + "/ajuste", Map.of("tipoAjuste", "desconto", "percentual", "5"));
+		return null;
+	}
+
+	private Void concluir(String id) {
+		postar("/orcamentos/" + id + "/status", Map.of("novoStatus", "venda_concluida"));
+		return null;
+	}
+
+	private HttpResponse<Void> postar(String caminho, Map<String, String> campos) {
+		StringBuilder corpo = new StringBuilder();
+		campos.forEach((nome, valor) -> {
+			if (!corpo.isEmpty()) {
+				corpo.append('&');
+			}
+			corpo.append(nome).append('=').append(URLEncoder.encode(valor, StandardCharsets.UTF_8));
+		});
+		HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + ambiente.getProperty("local.server.port") + caminho))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(corpo.toString()))
+				.build();
+		try {
+			HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+			if (resposta.statusCode() != 302) {
+				throw new IllegalStateException(caminho + " respondeu " + resposta.statusCode());
+			}
+			return resposta;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		} catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private void registrar(Map<String, List<Long>> latencias, String etapa, long inicio) {
+		if (latencias != null) {
+			latencias.get(etapa).add(System.nanoTime() - inicio);
+		}
+	}
+
+	private static double percentil(List<Long> amostras, double p) {
+		if (amostras.isEmpty()) {
+			return 0;
+		}
+		int indice = (int) Math.ceil(p * amostras.size()) - 1;
+		return amostras.get(Math.max(0, indice)) / 1_000_000.0;
+	}
+}
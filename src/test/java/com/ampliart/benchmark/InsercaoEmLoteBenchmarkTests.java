@@ -0,0 +1,124 @@
+package com.ampliart.benchmark;
+
+import com.ampliart.dominio.Categoria;
+import com.ampliart.dominio.MovimentacaoEstoque;
+import com.ampliart.dominio.Produto;
+import com.ampliart.dominio.TipoMovimentacaoEstoque;
+import com.ampliart.repo.CategoriaRepositorio;
+import com.ampliart.repo.MovimentacaoEstoqueRepositorio;
+import com.ampliart.repo.ProdutoRepositorio;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compara a insercao de movimentacoes linha a linha com {@code returning id}, que e o que
+ * {@code GenerationType.IDENTITY} obriga o Hibernate a fazer, com o {@code saveAll} usando
+ * sequencia agrupada e batching de JDBC.
+ * <p>
+ * Executar com {@code mvn test -Dgroups=benchmark -DexcludedGroups=}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class InsercaoEmLoteBenchmarkTests {
+
+	private static final int LINHAS = 20_000;
+
+	@Autowired
+	private ProdutoRepositorio produtoRepositorio;
+
+	@Autowired
+	private CategoriaRepositorio categoriaRepositorio;
+
+	@Autowired
+	private MovimentacaoEstoqueRepositorio movimentacaoEstoqueRepositorio;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void insercaoDeMovimentacoes() {
+		Produto produto = criarProduto();
+		try {
+			long identidade = medir(() -> inserirLinhaALinha(produto.getId()));
+			long sequencia = medir(() -> inserirEmLote(produto));
+
+			System.out.printf("Linha a linha (identity): %d linhas em %d ms (%.0f linhas/s)%n",
+					LINHAS, identidade, LINHAS * 1000.0 / identidade);
+			System.out.printf("Sequencia + batch:        %d linhas em %d ms (%.0f linhas/s)%n",
+					LINHAS, sequencia, LINHAS * 1000.0 / sequencia);
+		} finally {
+			jdbcTemplate.update("delete from ampliart.movimentacao_estoque where produto_id = ?", produto.getId());
+			jdbcTemplate.update("delete from ampliart.produto where id = ?", produto.getId());
+		}
+	}
+
+	private void inserirLinhaALinha(Long produtoId) {
+		transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((Connection conexao) -> {
+			try (PreparedStatement comando = conexao.prepareStatement(
+					"insert into ampliart.movimentacao_estoque (produto_id, tipo, quantidade, motivo, data_movimentacao) " +
+							"values (?, ?, ?, ?, ?) returning id")) {
+				for (int i = 0; i < LINHAS; i++) {
+					comando.setLong(1, produtoId);
+					comando.setString(2, TipoMovimentacaoEstoque.entrada.name());
+					comando.setInt(3, 1);
+					comando.setString(4, "Benchmark identity");
+					comando.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+					try (ResultSet chave = comando.executeQuery()) {
+						chave.next();
+					}
+				}
+			}
+			return null;
+		}));
+	}
+
+	private void inserirEmLote(Produto produto) {
+		transactionTemplate.executeWithoutResult(status -> {
+			List<MovimentacaoEstoque> lote = new ArrayList<>(LINHAS);
+			for (int i = 0; i < LINHAS; i++) {
+				MovimentacaoEstoque mov = new MovimentacaoEstoque();
+				mov.setProduto(produto);
+				mov.setTipo(TipoMovimentacaoEstoque.entrada);
+				mov.setQuantidade(1);
+				mov.setMotivo("Benchmark sequencia");
+				lote.add(mov);
+			}
+			movimentacaoEstoqueRepositorio.saveAll(lote);
+		});
+	}
+
+	private long medir(Runnable acao) {
+		long inicio = System.nanoTime();
+		acao.run();
+		return Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+	}
+
+	private Produto criarProduto() {
+		Categoria categoria = categoriaRepositorio.findByNome("Sem categoria").orElseThrow();
+		Produto produto = new Produto();
+		produto.setNome("Produto benchmark");
+		produto.setCodigo("BENCH-" + UUID.randomUUID());
+		produto.setCategoria(categoria);
+		produto.setPrecoCompra(BigDecimal.ONE);
+		produto.setPrecoVenda(BigDecimal.TEN);
+		produto.setQuantidadeEstoque(0);
+		return produtoRepositorio.save(produto);
+	}
+}
@@ -0,0 +1,116 @@
+package com.ampliart.benchmark;
+
+import com.ampliart.AmpliartApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sobe a aplicacao duas vezes, com threads de plataforma e com o perfil {@code virtual}, e dispara
+ * a mesma carga concorrente contra as listagens e o detalhe de orcamento, imprimindo vazao e
+ * latencias p50/p99 de cada modo. O pool do Hikari e o mesmo nos dois casos.
+ * <p>
+ * Executar com {@code mvn test -Dgroups=benchmark -DexcludedGroups=}.
+ */
+@Tag("benchmark")
+class ThreadsVirtuaisBenchmarkTests {
+
+	private static final int CLIENTES = 400;
+	private static final Duration AQUECIMENTO = Duration.ofSeconds(10);
+	private static final Duration DURACAO = Duration.ofSeconds(30);
+
+	@Test
+	void listagensEDetalheDeOrcamento() throws Exception {
+		Resultado plataforma = executar(false);
+		Resultado virtual = executar(true);
+
+		System.out.println("Modo        req/s     p50 ms   p99 ms   erros");
+		plataforma.imprimir("plataforma");
+		virtual.imprimir("virtual");
+	}
+
+	private Resultado executar(boolean threadsVirtuais) throws Exception {
+		SpringApplicationBuilder aplicacao = new SpringApplicationBuilder(AmpliartApplication.class)
+				.properties("server.port=0", "spring.datasource.hikari.maximum-pool-size=20");
+		if (threadsVirtuais) {
+			aplicacao.profiles("virtual");
+		}
+		try (ConfigurableApplicationContext contexto = aplicacao.run()) {
+			String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+			List<String> caminhos = new ArrayList<>(List.of("/orcamentos", "/produtos", "/estoque/movimentacoes"));
+			List<Long> orcamentos = contexto.getBean(JdbcTemplate.class)
+					.queryForList("select id from ampliart.orcamento order by id desc limit 1", Long.class);
+			if (!orcamentos.isEmpty()) {
+				caminhos.add("/orcamentos/" + orcamentos.get(0));
+			}
+			HttpClient cliente = HttpClient.newBuilder()
+					.executor(Executors.newVirtualThreadPerTaskExecutor())
+					.build();
+			disparar(cliente, base, caminhos, AQUECIMENTO);
+			return disparar(cliente, base, caminhos, DURACAO);
+		}
+	}
+
+	private Resultado disparar(HttpClient cliente, String base, List<String> caminhos, Duration duracao)
+			throws InterruptedException {
+		List<Long> latencias = Collections.synchronizedList(new ArrayList<>());
+		AtomicLong erros = new AtomicLong();
+		long fim = System.nanoTime() + duracao.toNanos();
+		try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < CLIENTES; c++) {
+				int deslocamento = c;
+				clientes.submit(() -> {
+					int i = deslocamento;
+					while (System.nanoTime() < fim) {
+						HttpRequest requisicao = HttpRequest.newBuilder(
+								URI.create(base + caminhos.get(i++ % caminhos.size()))).build();
+						long inicio = System.nanoTime();
+						try {
+							HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+							if (resposta.statusCode() != 200) {
+								erros.incrementAndGet();
+							}
+						} catch (Exception ex) {
+							erros.incrementAndGet();
+						}
+						latencias.add(System.nanoTime() - inicio);
+					}
+					return null;
+				});
+			}
+		}
+		return new Resultado(new ArrayList<>(latencias), erros.get(), duracao);
+	}
+
+	private record Resultado(List<Long> latencias, long erros, Duration duracao) {
+
+		void imprimir(String modo) {
+			Collections.sort(latencias);
+			System.out.printf("%-10s %8.0f %9.1f %8.1f %7d%n", modo,
+					latencias.size() / (double) duracao.toSeconds(),
+					percentil(0.50), percentil(0.99), erros);
+		}
+
+		private double percentil(double p) {
+			if (latencias.isEmpty()) {
+				return 0;
+			}
+			int indice = (int) Math.ceil(p * latencias.size()) - 1;
+			return latencias.get(Math.max(0, indice)) / 1_000_000.0;
+		}
+	}
+}
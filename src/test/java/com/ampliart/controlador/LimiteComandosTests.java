@@ -0,0 +1,140 @@
+package com.ampliart.controlador;
+
+import com.ampliart.dominio.Categoria;
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.dominio.Produto;
+import com.ampliart.dominio.TipoMovimentacaoEstoque;
+import com.ampliart.repo.CategoriaRepositorio;
+import com.ampliart.repo.ProdutoRepositorio;
+import com.ampliart.servico.EstoqueServico;
+import com.ampliart.servico.OrcamentoServico;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static com.ampliart.AssercoesComandos.assertComandosNoMaximo;
+import static com.ampliart.AssercoesComandos.assertMesmosComandos;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class LimiteComandosTests {
+
+	@Autowired
+	private WebApplicationContext contexto;
+
+	@Autowired
+	private OrcamentoServico orcamentoServico;
+
+	@Autowired
+	private EstoqueServico estoqueServico;
+
+	@Autowired
+	private ProdutoRepositorio produtoRepositorio;
+
+	@Autowired
+	private CategoriaRepositorio categoriaRepositorio;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private MockMvc mockMvc;
+	private final List<Produto> produtos = new ArrayList<>();
+	private final List<Long> orcamentos = new ArrayList<>();
+
+	@BeforeEach
+	void preparar() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(contexto).build();
+	}
+
+	@AfterEach
+	void limpar() {
+		for (Long id : orcamentos) {
+			jdbcTemplate.update("delete from ampliart.orcamento_item where orcamento_id = ?", id);
+			jdbcTemplate.update("delete from ampliart.orcamento where id = ?", id);
+		}
+		for (Produto produto : produtos) {
+			jdbcTemplate.update("delete from ampliart.movimentacao_estoque where produto_id = ?", produto.getId());
+			jdbcTemplate.update("delete from ampliart.produto where id = ?", produto.getId());
+		}
+	}
+
+	@Test
+	void detalheDoOrcamentoNaoCresceComOsItens() {
+		criarProdutos(20);
+		Long pequeno = criarOrcamento(produtos.subList(0, 2));
+		Long grande = criarOrcamento(produtos);
+		int limite = limiteDe(OrcamentoControlador.class, "detalhes");
+
+		assertMesmosComandos(() -> abrir("/orcamentos/" + pequeno), () -> abrir("/orcamentos/" + grande),
+				() -> "O detalhe do orcamento passou a executar um comando por item");
+		assertComandosNoMaximo(limite, () -> abrir("/orcamentos/" + grande));
+	}
+
+	@Test
+	void movimentacoesNaoCrescemComAsLinhas() {
+		criarProdutos(2);
+		estoqueServico.registrarMovimentacao(produtos.get(0).getId(), TipoMovimentacaoEstoque.entrada, 1, "Teste limite");
+		String filtro = "/estoque/movimentacoes?produtoId=" + produtos.get(0).getId();
+		int limite = limiteDe(EstoqueControlador.class, "movimentacoes");
+		int antes = assertComandosNoMaximo(limite, () -> abrir(filtro));
+
+		for (int i = 0; i < 20; i++) {
+			Produto produto = produtos.get(i % 2);
+			estoqueServico.registrarMovimentacao(produto.getId(), TipoMovimentacaoEstoque.entrada, 1, "Teste limite " + i);
+		}
+		assertComandosNoMaximo(antes, () -> abrir(filtro));
+	}
+
+	private void abrir(String caminho) throws Exception {
+		mockMvc.perform(get(caminho)).andExpect(status().isOk());
+	}
+
+	private int limiteDe(Class<?> controlador, String metodo) {
+		return Arrays.stream(controlador.getMethods())
+				.filter(m -> m.getName().equals(metodo))
+				.map(m -> m.getAnnotation(LimiteComandos.class))
+				.filter(limite -> limite != null)
+				.findFirst()
+				.orElseThrow()
+				.value();
+	}
+
+	private void criarProdutos(int quantidade) {
+		Categoria categoria = categoriaRepositorio.findByNome("Sem categoria").orElseThrow();
+		for (int i = 0; i < quantidade; i++) {
+			Produto produto = new Produto();
+			produto.setNome("Produto limite " + i);
+			produto.setCodigo("LIMITE-" + UUID.randomUUID());
+			produto.setCategoria(categoria);
+			produto.setPrecoCompra(new BigDecimal("2.50"));
+			produto.setPrecoVenda(new BigDecimal("4.00"));
+			produto.setQuantidadeEstoque(100);
+			produtos.add(produtoRepositorio.save(produto));
+		}
+	}
+
+	private Long criarOrcamento(List<Produto> itens) {
+		Orcamento orcamento = new Orcamento();
+		orcamento.setClienteNome("Cliente limite");
+		orcamento.setClienteTelefone("(11) 99999-0000");
+		Long id = orcamentoServico.criar(orcamento).getId();
+		orcamentos.add(id);
+		for (Produto produto : itens) {
+			orcamentoServico.adicionarItemPorCodigo(id, produto.getCodigo(), 1);
+		}
+		return id;
+	}
+}
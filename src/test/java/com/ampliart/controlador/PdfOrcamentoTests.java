@@ -0,0 +1,146 @@
+package com.ampliart.controlador;
+
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.dominio.StatusOrcamento;
+import com.ampliart.servico.ExportacaoOrcamentoServico;
+import com.ampliart.servico.FilaRenderizacaoPdf;
+import com.ampliart.servico.FilaSaturadaException;
+import com.ampliart.servico.OrcamentoServico;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class PdfOrcamentoTests {
+
+	private static final int LIMITE_TAREFAS = 1000;
+
+	@Autowired
+	private WebApplicationContext contexto;
+
+	@Autowired
+	private OrcamentoServico orcamentoServico;
+
+	@Autowired
+	private FilaRenderizacaoPdf filaRenderizacaoPdf;
+
+	@Autowired
+	private ExportacaoOrcamentoServico exportacaoOrcamentoServico;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private MockMvc mockMvc;
+	private final CountDownLatch liberar = new CountDownLatch(1);
+	private final List<Future<Void>> bloqueios = new ArrayList<>();
+	private Long orcamentoId;
+
+	@BeforeEach
+	void preparar() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(contexto).build();
+		Orcamento orcamento = new Orcamento();
+		orcamento.setClienteNome("Cliente pdf");
+		orcamento.setClienteTelefone("(11) 99999-0000");
+		orcamentoId = orcamentoServico.criar(orcamento).getId();
+	}
+
+	@AfterEach
+	void limpar() throws Exception {
+		liberar.countDown();
+		for (Future<Void> bloqueio : bloqueios) {
+			bloqueio.get(10, TimeUnit.SECONDS);
+		}
+		jdbcTemplate.update("delete from ampliart.orcamento where id = ?", orcamentoId);
+	}
+
+	@Test
+	void baixarPdfEntregaDocumentoRenderizado() throws Exception {
+		byte[] pdf = mockMvc.perform(get("/orcamentos/" + orcamentoId + "/pdf"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_PDF))
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		assertTrue(new String(pdf, 0, 5).startsWith("%PDF-"), "Resposta nao e um PDF");
+	}
+
+	@Test
+	void filaSaturadaRespondeIndisponivelComRetryAfter() throws Exception {
+		saturarFila();
+
+		mockMvc.perform(get("/orcamentos/" + orcamentoId + "/pdf"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+	}
+
+	@Test
+	void exportacaoAguardaFilaSaturadaSemRenderizarNaRequisicao() throws Exception {
+		saturarFila();
+		LocalDate hoje = LocalDate.now();
+		ByteArrayOutputStream zip = new ByteArrayOutputStream();
+		CompletableFuture<Integer> exportacao = CompletableFuture.supplyAsync(() -> {
+			try {
+				return exportacaoOrcamentoServico.exportarZip(StatusOrcamento.rascunho, hoje, hoje, zip);
+			} catch (Exception ex) {
+				throw new IllegalStateException(ex);
+			}
+		});
+
+		Thread.sleep(300);
+		assertFalse(exportacao.isDone(), "A exportacao renderizou fora da fila saturada");
+		liberar.countDown();
+		exportacao.get(30, TimeUnit.SECONDS);
+
+		Set<String> entradas = new HashSet<>();
+		try (ZipInputStream leitor = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+			for (ZipEntry entrada = leitor.getNextEntry(); entrada != null; entrada = leitor.getNextEntry()) {
+				entradas.add(entrada.getName());
+			}
+		}
+		assertTrue(entradas.contains("orcamento-" + orcamentoId + ".pdf"), () -> "Entradas exportadas: " + entradas);
+	}
+
+	private void saturarFila() {
+		for (int i = 0; i < LIMITE_TAREFAS; i++) {
+			try {
+				bloqueios.add(filaRenderizacaoPdf.agendar(() -> {
+					liberar.await();
+					return null;
+				}));
+			} catch (FilaSaturadaException ex) {
+				return;
+			}
+		}
+		fail("A fila de PDFs aceitou " + LIMITE_TAREFAS + " tarefas sem saturar");
+	}
+}
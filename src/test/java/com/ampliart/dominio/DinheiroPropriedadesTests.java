@@ -0,0 +1,141 @@
+package com.ampliart.dominio;
+
+import com.ampliart.servico.OrcamentoServico;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.IntRange;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DinheiroPropriedadesTests {
+
+	private final OrcamentoServico orcamentoServico = new OrcamentoServico(null, null, null, null, null, null, null);
+
+	@Property
+	void conversaoArredondaComoSetScale(@ForAll("valores") BigDecimal valor) {
+		assertEquals(valor.setScale(2, RoundingMode.HALF_UP), Dinheiro.de(valor).paraBigDecimal());
+	}
+
+	@Property
+	void produtoIgualAoCalculoDeSubtotal(@ForAll("valores") BigDecimal preco,
+										 @ForAll @IntRange(min = 0, max = 100_000) int quantidade) {
+		BigDecimal esperado = preco.multiply(new BigDecimal(quantidade)).setScale(2, RoundingMode.HALF_UP);
+		assertEquals(esperado, Dinheiro.produto(preco, quantidade).paraBigDecimal());
+	}
+
+	@Property
+	void percentualIgualAoCalculoDeAjuste(@ForAll("valores") BigDecimal valor, @ForAll("percentuais") BigDecimal percentual) {
+		BigDecimal total = valor.setScale(2, RoundingMode.HALF_UP);
+		BigDecimal esperado = total.multiply(percentual).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+		assertEquals(esperado, Dinheiro.de(total).percentual(percentual).paraBigDecimal());
+	}
+
+	@Property
+	void somaDeCustosIgualAoAcumuloDaVenda(@ForAll("custos") List<BigDecimal> custos,
+										   @ForAll @IntRange(min = 1, max = 500) int quantidade) {
+		BigDecimal esperado = BigDecimal.ZERO;
+		Dinheiro gasto = Dinheiro.ZERO;
+		for (BigDecimal custo : custos) {
+			esperado = esperado.add(custo.multiply(new BigDecimal(quantidade)));
+			gasto = gasto.somar(Dinheiro.produto(custo, quantidade));
+		}
+		assertEquals(esperado.setScale(2, RoundingMode.HALF_UP), gasto.paraBigDecimal());
+	}
+
+	@Property
+	void recalcularTotaisIgualAoCalculoEmBigDecimal(@ForAll("orcamentos") Orcamento orcamento) {
+		Orcamento referencia = copiar(orcamento);
+		recalcularEmBigDecimal(referencia);
+
+		orcamentoServico.recalcularTotais(orcamento);
+
+		assertEquals(referencia.getTotalBruto(), orcamento.getTotalBruto());
+		assertEquals(referencia.getValorAjuste(), orcamento.getValorAjuste());
+		assertEquals(referencia.getTotalFinal(), orcamento.getTotalFinal());
+	}
+
+	@Provide
+	Arbitrary<BigDecimal> valores() {
+		return Arbitraries.integers().between(0, 6).flatMap(escala -> Arbitraries.bigDecimals()
+				.between(new BigDecimal("-1000000"), new BigDecimal("1000000"))
+				.ofScale(escala));
+	}
+
+	@Provide
+	Arbitrary<BigDecimal> percentuais() {
+		return Arbitraries.integers().between(0, 8).flatMap(escala -> Arbitraries.bigDecimals()
+				.between(BigDecimal.ZERO, new BigDecimal("100"))
+				.ofScale(escala));
+	}
+
+	@Provide
+	Arbitrary<List<BigDecimal>> custos() {
+		return Arbitraries.bigDecimals()
+				.between(BigDecimal.ZERO, new BigDecimal("99999.99"))
+				.ofScale(2)
+				.list()
+				.ofMaxSize(50);
+	}
+
+	@Provide
+	Arbitrary<Orcamento> orcamentos() {
+		Arbitrary<OrcamentoItem> itens = Combinators.combine(
+				Arbitraries.bigDecimals().between(BigDecimal.ZERO, new BigDecimal("99999.99")).ofScale(2),
+				Arbitraries.integers().between(1, 1_000)
+		).as((preco, quantidade) -> {
+			OrcamentoItem item = new OrcamentoItem();
+			item.setPrecoUnitario(preco);
+			item.setQuantidade(quantidade);
+			item.setSubtotal(preco.multiply(new BigDecimal(quantidade)).setScale(2, RoundingMode.HALF_UP));
+			return item;
+		});
+		return Combinators.combine(
+				itens.list().ofMaxSize(200),
+				Arbitraries.bigDecimals().between(BigDecimal.ZERO, new BigDecimal("100")).ofScale(2).injectNull(0.1),
+				Arbitraries.of(TipoAjuste.class).injectNull(0.1)
+		).as((lista, percentual, tipo) -> {
+			Orcamento orcamento = new Orcamento();
+			orcamento.setItens(new ArrayList<>(lista));
+			orcamento.setPercentualAjuste(percentual);
+			orcamento.setTipoAjuste(tipo);
+			return orcamento;
+		});
+	}
+
+	private static Orcamento copiar(Orcamento orcamento) {
+		Orcamento copia = new Orcamento();
+		copia.setItens(new ArrayList<>(orcamento.getItens()));
+		copia.setPercentualAjuste(orcamento.getPercentualAjuste());
+		copia.setTipoAjuste(orcamento.getTipoAjuste());
+		return copia;
+	}
+
+	private static void recalcularEmBigDecimal(Orcamento orcamento) {
+		BigDecimal totalBruto = orcamento.getItens().stream()
+				.map(OrcamentoItem::getSubtotal)
+				.reduce(BigDecimal.ZERO, BigDecimal::add)
+				.setScale(2, RoundingMode.HALF_UP);
+		orcamento.setTotalBruto(totalBruto);
+
+		BigDecimal valorAjuste = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+		if (orcamento.getPercentualAjuste() != null && orcamento.getTipoAjuste() != null) {
+			valorAjuste = totalBruto
+					.multiply(orcamento.getPercentualAjuste())
+					.divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+			if (orcamento.getTipoAjuste() == TipoAjuste.desconto) {
+				valorAjuste = valorAjuste.negate();
+			}
+		}
+		orcamento.setValorAjuste(valorAjuste);
+		orcamento.setTotalFinal(totalBruto.add(valorAjuste).setScale(2, RoundingMode.HALF_UP));
+	}
+}
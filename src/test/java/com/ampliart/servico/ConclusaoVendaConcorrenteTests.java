@@ -0,0 +1,120 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.Categoria;
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.dominio.Produto;
+import com.ampliart.dominio.StatusOrcamento;
+import com.ampliart.repo.CategoriaRepositorio;
+import com.ampliart.repo.ProdutoRepositorio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class ConclusaoVendaConcorrenteTests {
+
+	private static final int ESTOQUE_INICIAL = 50;
+	private static final int VENDAS = 200;
+	private static final int THREADS = 32;
+
+	@Autowired
+	private OrcamentoServico orcamentoServico;
+
+	@Autowired
+	private ProdutoRepositorio produtoRepositorio;
+
+	@Autowired
+	private CategoriaRepositorio categoriaRepositorio;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Produto produto;
+	private final List<Long> orcamentos = new ArrayList<>();
+
+	@AfterEach
+	void removerDados() {
+		LimpezaVendas.removerOrcamentos(jdbcTemplate, orcamentos);
+		if (produto != null) {
+			jdbcTemplate.update("delete from ampliart.movimentacao_estoque where produto_id = ?", produto.getId());
+			jdbcTemplate.update("delete from ampliart.produto where id = ?", produto.getId());
+		}
+	}
+
+	@Test
+	void vendasParalelasNaoVendemMaisQueOEstoque() throws Exception {
+		produto = criarProduto();
+		for (int i = 0; i < VENDAS; i++) {
+			Orcamento orcamento = new Orcamento();
+			orcamento.setClienteNome("Cliente " + i);
+			orcamento.setClienteTelefone("(11) 99999-0000");
+			Long id = orcamentoServico.criar(orcamento).getId();
+			orcamentoServico.adicionarItemPorCodigo(id, produto.getCodigo(), 1);
+			orcamentos.add(id);
+		}
+
+		AtomicInteger concluidas = new AtomicInteger();
+		AtomicInteger recusadas = new AtomicInteger();
+		CountDownLatch largada = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> tarefas = new ArrayList<>();
+			for (Long id : orcamentos) {
+				tarefas.add(executor.submit(() -> {
+					largada.await();
+					try {
+						orcamentoServico.alterarStatus(id, StatusOrcamento.venda_concluida);
+						concluidas.incrementAndGet();
+					} catch (EstoqueInsuficienteException ex) {
+						assertEquals(produto.getId(), ex.getProdutoId());
+						recusadas.incrementAndGet();
+					}
+					return null;
+				}));
+			}
+			largada.countDown();
+			for (Future<?> tarefa : tarefas) {
+				tarefa.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		int estoqueFinal = produtoRepositorio.findById(produto.getId()).orElseThrow().getQuantidadeEstoque();
+		Integer saidas = jdbcTemplate.queryForObject(
+				"select coalesce(sum(quantidade), 0) from ampliart.movimentacao_estoque where produto_id = ?",
+				Integer.class, produto.getId());
+
+		assertEquals(ESTOQUE_INICIAL, concluidas.get());
+		assertEquals(VENDAS - ESTOQUE_INICIAL, recusadas.get());
+		assertEquals(0, estoqueFinal);
+		assertEquals(ESTOQUE_INICIAL, saidas);
+	}
+
+	private Produto criarProduto() {
+		Categoria categoria = categoriaRepositorio.findByNome("Sem categoria").orElseThrow();
+		Produto novo = new Produto();
+		novo.setNome("Produto concorrencia");
+		novo.setCodigo("TESTE-" + UUID.randomUUID());
+		novo.setCategoria(categoria);
+		novo.setPrecoCompra(new BigDecimal("5.00"));
+		novo.setPrecoVenda(new BigDecimal("10.00"));
+		novo.setQuantidadeEstoque(ESTOQUE_INICIAL);
+		return produtoRepositorio.save(novo);
+	}
+}
@@ -0,0 +1,116 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.Categoria;
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.dominio.Produto;
+import com.ampliart.dominio.StatusOrcamento;
+import com.ampliart.repo.CategoriaRepositorio;
+import com.ampliart.repo.ProdutoRepositorio;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.ampliart.AssercoesComandos.contarComandos;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ConclusaoVendaLoteTests {
+
+	private static final List<Integer> TAMANHOS = List.of(1, 10, 100);
+
+	@Autowired
+	private OrcamentoServico orcamentoServico;
+
+	@Autowired
+	private ProdutoRepositorio produtoRepositorio;
+
+	@Autowired
+	private CategoriaRepositorio categoriaRepositorio;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Produto> produtos = new ArrayList<>();
+	private final List<Long> orcamentos = new ArrayList<>();
+
+	@AfterEach
+	void removerDados() {
+		LimpezaVendas.removerOrcamentos(jdbcTemplate, orcamentos);
+		for (Produto produto : produtos) {
+			jdbcTemplate.update("delete from ampliart.movimentacao_estoque where produto_id = ?", produto.getId());
+			jdbcTemplate.update("delete from ampliart.produto where id = ?", produto.getId());
+		}
+	}
+
+	@Test
+	void quantidadeDeComandosNaoDependeDoNumeroDeLinhas() {
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Map<Integer, Long> operacoesPorTamanho = new LinkedHashMap<>();
+		Map<Integer, Integer> comandosPorTamanho = new LinkedHashMap<>();
+		for (int tamanho : TAMANHOS) {
+			Long id = criarOrcamento(criarProdutos(tamanho));
+			estatisticas.clear();
+			comandosPorTamanho.put(tamanho, contarComandos(() -> orcamentoServico.alterarStatus(id, StatusOrcamento.venda_concluida)));
+			operacoesPorTamanho.put(tamanho, estatisticas.getEntityInsertCount() + estatisticas.getEntityUpdateCount()
+					+ estatisticas.getEntityDeleteCount() + estatisticas.getCollectionUpdateCount());
+		}
+
+		for (int tamanho : TAMANHOS) {
+			assertEquals(comandosPorTamanho.get(TAMANHOS.get(0)), comandosPorTamanho.get(tamanho),
+					() -> "Comandos SQL por quantidade de itens: " + comandosPorTamanho);
+			assertEquals(operacoesPorTamanho.get(TAMANHOS.get(0)), operacoesPorTamanho.get(tamanho),
+					() -> "Linhas gravadas pelo Hibernate por quantidade de itens: " + operacoesPorTamanho);
+		}
+		for (Produto produto : produtos) {
+			assertEquals(99, produtoRepositorio.findById(produto.getId()).orElseThrow().getQuantidadeEstoque());
+		}
+		for (Long id : orcamentos) {
+			assertEquals(0, jdbcTemplate.queryForObject("select count(*) from ampliart.orcamento_item "
+					+ "where orcamento_id = ? and custo_unitario is distinct from 2.50", Integer.class, id));
+		}
+	}
+
+	private List<Produto> criarProdutos(int quantidade) {
+		Categoria categoria = categoriaRepositorio.findByNome("Sem categoria").orElseThrow();
+		List<Produto> criados = new ArrayList<>();
+		for (int i = 0; i < quantidade; i++) {
+			Produto produto = new Produto();
+			produto.setNome("Produto lote " + i);
+			produto.setCodigo("LOTE-" + UUID.randomUUID());
+			produto.setCategoria(categoria);
+			produto.setPrecoCompra(new BigDecimal("2.50"));
+			produto.setPrecoVenda(new BigDecimal("4.00"));
+			produto.setQuantidadeEstoque(100);
+			criados.add(produtoRepositorio.save(produto));
+		}
+		produtos.addAll(criados);
+		return criados;
+	}
+
+	private Long criarOrcamento(List<Produto> itens) {
+		Orcamento orcamento = new Orcamento();
+		orcamento.setClienteNome("Cliente lote");
+		orcamento.setClienteTelefone("(11) 99999-0000");
+		Long id = orcamentoServico.criar(orcamento).getId();
+		orcamentos.add(id);
+		for (Produto produto : itens) {
+			orcamentoServico.adicionarItemPorCodigo(id, produto.getCodigo(), 1);
+		}
+		return id;
+	}
+}
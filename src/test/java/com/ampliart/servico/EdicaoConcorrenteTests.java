@@ -0,0 +1,154 @@
+package com.ampliart.servico;
+
+import com.ampliart.dominio.Categoria;
+import com.ampliart.dominio.Orcamento;
+import com.ampliart.dominio.OrcamentoItem;
+import com.ampliart.dominio.Produto;
+import com.ampliart.dominio.TipoMovimentacaoEstoque;
+import com.ampliart.repo.CategoriaRepositorio;
+import com.ampliart.repo.ProdutoRepositorio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class EdicaoConcorrenteTests {
+
+	private static final int ITENS = 16;
+
+	@Autowired
+	private OrcamentoServico orcamentoServico;
+
+	@Autowired
+	private ProdutoServico produtoServico;
+
+	@Autowired
+	private EstoqueServico estoqueServico;
+
+	@Autowired
+	private RepeticaoConflito repeticaoConflito;
+
+	@Autowired
+	private ProdutoRepositorio produtoRepositorio;
+
+	@Autowired
+	private CategoriaRepositorio categoriaRepositorio;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Produto> produtos = new ArrayList<>();
+	private Long orcamentoId;
+
+	@AfterEach
+	void removerDados() {
+		if (orcamentoId != null) {
+			jdbcTemplate.update("delete from ampliart.orcamento_item where orcamento_id = ?", orcamentoId);
+			jdbcTemplate.update("delete from ampliart.orcamento where id = ?", orcamentoId);
+		}
+		for (Produto produto : produtos) {
+			jdbcTemplate.update("delete from ampliart.movimentacao_estoque where produto_id = ?", produto.getId());
+			jdbcTemplate.update("delete from ampliart.produto where id = ?", produto.getId());
+		}
+	}
+
+	@Test
+	void edicoesParalelasNaoPerdemAtualizacoesDeTotais() throws Exception {
+		for (int i = 0; i < ITENS; i++) {
+			criarProduto(100);
+		}
+		Orcamento novo = new Orcamento();
+		novo.setClienteNome("Cliente concorrencia");
+		novo.setClienteTelefone("(11) 99999-0000");
+		Long id = orcamentoServico.criar(novo).getId();
+		orcamentoId = id;
+		for (Produto produto : produtos) {
+			orcamentoServico.adicionarItemPorCodigo(id, produto.getCodigo(), 1);
+		}
+		List<Long> itens = orcamentoServico.buscarDetalhe(id).getItens().stream()
+				.map(OrcamentoItem::getId)
+				.toList();
+
+		AtomicInteger atualizados = new AtomicInteger();
+		AtomicInteger conflitos = new AtomicInteger();
+		CountDownLatch largada = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(ITENS);
+		try {
+			List<Future<?>> tarefas = new ArrayList<>();
+			for (Long itemId : itens) {
+				tarefas.add(executor.submit(() -> {
+					largada.await();
+					try {
+						repeticaoConflito.executar(() -> orcamentoServico.atualizarItem(id, itemId, 3, null));
+						atualizados.incrementAndGet();
+					} catch (ConflitoEdicaoException ex) {
+						conflitos.incrementAndGet();
+					}
+					return null;
+				}));
+			}
+			largada.countDown();
+			for (Future<?> tarefa : tarefas) {
+				tarefa.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Orcamento orcamento = orcamentoServico.buscarDetalhe(id);
+		BigDecimal somaItens = orcamento.getItens().stream()
+				.map(OrcamentoItem::getSubtotal)
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		long itensAtualizados = orcamento.getItens().stream()
+				.filter(item -> item.getQuantidade() == 3)
+				.count();
+
+		assertEquals(ITENS, atualizados.get() + conflitos.get());
+		assertEquals(atualizados.get(), itensAtualizados);
+		assertEquals(0, somaItens.compareTo(orcamento.getTotalBruto()));
+	}
+
+	@Test
+	void edicaoDeProdutoDesatualizadaNaoSobrescreveEstoque() {
+		Produto produto = criarProduto(10);
+		Produto formulario = produtoServico.buscarPorId(produto.getId());
+
+		estoqueServico.registrarMovimentacao(produto.getId(), TipoMovimentacaoEstoque.entrada, 5, "Reposicao");
+
+		formulario.setNome("Produto renomeado");
+		assertThrows(ConflitoEdicaoException.class, () -> produtoServico.salvar(formulario));
+		Produto atual = produtoRepositorio.findById(produto.getId()).orElseThrow();
+		assertEquals(15, atual.getQuantidadeEstoque());
+		assertEquals(produto.getNome(), atual.getNome());
+	}
+
+	private Produto criarProduto(int estoque) {
+		Categoria categoria = categoriaRepositorio.findByNome("Sem categoria").orElseThrow();
+		Produto produto = new Produto();
+		produto.setNome("Produto edicao");
+		produto.setCodigo("EDICAO-" + UUID.randomUUID());
+		produto.setCategoria(categoria);
+		produto.setPrecoCompra(new BigDecimal("5.00"));
+		produto.setPrecoVenda(new BigDecimal("10.00"));
+		produto.setQuantidadeEstoque(estoque);
+		Produto salvo = produtoRepositorio.save(produto);
+		produtos.add(salvo);
+		return salvo;
+	}
+}
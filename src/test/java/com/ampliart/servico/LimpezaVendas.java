@@ -0,0 +1,34 @@
+package com.ampliart.servico;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+final class LimpezaVendas {
+
+	private static final String DESCONTAR_VENDAS_DIARIAS = "with vendas as (" +
+			"    select cast(o.data_conclusao as date) as dia, o.total_final as receita, " +
+			"    (select coalesce(sum(i.custo_unitario * i.quantidade), 0) from ampliart.orcamento_item i where i.orcamento_id = o.id) as gasto, " +
+			"    (select coalesce(sum(i.quantidade), 0) from ampliart.orcamento_item i where i.orcamento_id = o.id) as itens " +
+			"    from ampliart.orcamento o where o.id = any(?) and o.data_conclusao is not null), " +
+			"totais as (select dia, sum(receita) as receita, sum(gasto) as gasto, count(*) as vendas, sum(itens) as itens " +
+			"    from vendas group by dia) " +
+			"update ampliart.venda_diaria v set receita = v.receita - t.receita, gasto = v.gasto - t.gasto, " +
+			"lucro = v.lucro - (t.receita - t.gasto), quantidade_vendas = v.quantidade_vendas - t.vendas, " +
+			"quantidade_itens = v.quantidade_itens - t.itens " +
+			"from totais t where v.dia = t.dia";
+
+	private LimpezaVendas() {
+	}
+
+	static void removerOrcamentos(JdbcTemplate jdbcTemplate, List<Long> orcamentos) {
+		if (orcamentos.isEmpty()) {
+			return;
+		}
+		Long[] ids = orcamentos.toArray(new Long[0]);
+		jdbcTemplate.update(DESCONTAR_VENDAS_DIARIAS, (Object) ids);
+		jdbcTemplate.update("delete from ampliart.venda_diaria where quantidade_vendas <= 0");
+		jdbcTemplate.update("delete from ampliart.orcamento_item where orcamento_id = any(?)", (Object) ids);
+		jdbcTemplate.update("delete from ampliart.orcamento where id = any(?)", (Object) ids);
+	}
+}
@@ -0,0 +1,54 @@
+-- Benchmark da busca de produtos por nome em um catalogo sintetico.
+-- Uso: psql -d ampliart -f src/test/resources/benchmark/busca_produto.sql
+-- Cria um schema descartavel, popula 500 mil produtos e compara o plano e o
+-- tempo da busca antiga (lower(nome) like '%x%') com a busca por trigramas.
+
+drop schema if exists ampliart_bench cascade;
+create schema ampliart_bench;
+
+create table ampliart_bench.produto (
+    id bigserial primary key,
+    nome varchar(255) not null,
+    categoria_id bigint not null
+);
+
+insert into ampliart_bench.produto (nome, categoria_id)
+select (array['Caneta', 'Lápis', 'Caderno', 'Papel', 'Cartão', 'Pincel', 'Tinta', 'Régua', 'Borracha', 'Envelope'])[1 + (g % 10)]
+           || ' ' || (array['azul', 'vermelho', 'acrílica', 'pautado', 'sulfite', 'couché', 'metálico', 'neon'])[1 + ((g / 10) % 8)]
+           || ' ' || md5(g::text),
+       1 + (g % 40)
+from generate_series(1, 500000) as g;
+
+create index idx_bench_nome on ampliart_bench.produto (lower(nome));
+analyze ampliart_bench.produto;
+
+\timing on
+
+\echo '--- busca antiga: lower(nome) like, indice btree inutilizavel'
+explain (analyze, buffers)
+select * from ampliart_bench.produto
+where lower(nome) like '%acrilica%'
+order by nome
+limit 100;
+
+create index idx_bench_nome_trgm
+    on ampliart_bench.produto using gin (ampliart.f_unaccent(lower(nome)) public.gin_trgm_ops);
+analyze ampliart_bench.produto;
+
+\echo '--- busca nova: trigramas, sem acento, ordenada por similaridade'
+explain (analyze, buffers)
+select * from ampliart_bench.produto p
+where ampliart.f_unaccent(lower(p.nome)) like '%' || ampliart.f_unaccent(lower('acrilica')) || '%'
+  and p.categoria_id = 7
+order by public.similarity(ampliart.f_unaccent(lower(p.nome)), ampliart.f_unaccent(lower('acrilica'))) desc, p.nome, p.id
+limit 100;
+
+explain (analyze, buffers)
+select * from ampliart_bench.produto p
+where ampliart.f_unaccent(lower(p.nome)) like '%' || ampliart.f_unaccent(lower('caderno pautado')) || '%'
+order by public.similarity(ampliart.f_unaccent(lower(p.nome)), ampliart.f_unaccent(lower('caderno pautado'))) desc, p.nome, p.id
+limit 100;
+
+\timing off
+
+drop schema ampliart_bench cascade;